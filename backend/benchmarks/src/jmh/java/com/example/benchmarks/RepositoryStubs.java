@@ -0,0 +1,37 @@
+package com.example.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+// Заглушки Spring Data репозиториев без контекста и БД: отвечают только на перечисленные методы
+public final class RepositoryStubs {
+
+  private RepositoryStubs() {}
+
+  @SuppressWarnings("unchecked")
+  public static <T> T stub(Class<T> repositoryType, Map<String, Function<Object[], ?>> answers) {
+    return (T)
+        Proxy.newProxyInstance(
+            repositoryType.getClassLoader(),
+            new Class<?>[] {repositoryType},
+            (proxy, method, args) -> {
+              Function<Object[], ?> answer = answers.get(method.getName());
+              if (answer != null) {
+                return answer.apply(args);
+              }
+              if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                  case "equals":
+                    return proxy == args[0];
+                  case "hashCode":
+                    return System.identityHashCode(proxy);
+                  default:
+                    return repositoryType.getSimpleName() + " stub";
+                }
+              }
+              throw new UnsupportedOperationException(
+                  repositoryType.getSimpleName() + "." + method.getName() + " is not stubbed");
+            });
+  }
+}
@@ -0,0 +1,95 @@
+package com.example.benchmarks;
+
+import com.example.shared.model.Author;
+import com.example.shared.model.Book;
+import com.example.shared.model.Genre;
+import com.example.shared.model.Library;
+import com.example.shared.model.Publisher;
+import com.example.shared.model.Theme;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Синтетический каталог с фиксированным seed: между запусками данные одинаковые
+public final class SyntheticCatalog {
+
+  private static final int GENRE_COUNT = 50;
+  private static final int THEME_COUNT = 30;
+  private static final int PUBLISHER_COUNT = 200;
+  private static final int AUTHOR_COUNT = 5000;
+
+  private SyntheticCatalog() {}
+
+  public static List<Book> books(int count, int authorsPerBook) {
+    Random random = new Random(42);
+
+    List<Genre> genres = new ArrayList<>();
+    for (long id = 1; id <= GENRE_COUNT; id++) {
+      Genre genre = new Genre();
+      genre.setId(id);
+      genre.setName("genre-" + id);
+      genres.add(genre);
+    }
+    List<Theme> themes = new ArrayList<>();
+    for (long id = 1; id <= THEME_COUNT; id++) {
+      Theme theme = new Theme();
+      theme.setId(id);
+      theme.setName("theme-" + id);
+      themes.add(theme);
+    }
+    List<Publisher> publishers = new ArrayList<>();
+    for (long id = 1; id <= PUBLISHER_COUNT; id++) {
+      Publisher publisher = new Publisher();
+      publisher.setId(id);
+      publisher.setName("publisher-" + id);
+      publishers.add(publisher);
+    }
+    List<Author> authors = new ArrayList<>();
+    for (long id = 1; id <= AUTHOR_COUNT; id++) {
+      Author author = new Author();
+      author.setId(id);
+      author.setName("name" + id);
+      author.setSurname("surname" + id);
+      author.setBirthDate(LocalDate.of(1900, 1, 1).plusDays(random.nextInt(30000)));
+      authors.add(author);
+    }
+
+    List<Book> books = new ArrayList<>(count);
+    for (long id = 1; id <= count; id++) {
+      Book book = new Book();
+      book.setId(id);
+      book.setTitle("Book " + id);
+      book.setYearPublished(1900 + random.nextInt(125));
+      book.setISBN(String.format("978%010d", id));
+      book.setGenre(genres.get(random.nextInt(genres.size())));
+      book.setTheme(themes.get(random.nextInt(themes.size())));
+      book.setPublisher(publishers.get(random.nextInt(publishers.size())));
+      book.setRatingCount(random.nextInt(100));
+      book.setAverageRating(random.nextFloat() * 5);
+
+      List<Author> bookAuthors = new ArrayList<>(authorsPerBook);
+      for (int i = 0; i < authorsPerBook; i++) {
+        bookAuthors.add(authors.get(random.nextInt(authors.size())));
+      }
+      book.setAuthors(bookAuthors);
+      books.add(book);
+    }
+    return books;
+  }
+
+  public static List<Library> libraries(int count) {
+    List<Library> libraries = new ArrayList<>(count);
+    for (long id = 1; id <= count; id++) {
+      Library library = new Library();
+      library.setId(id);
+      library.setName("library-" + id);
+      library.setAddress("street " + id);
+      library.setOpeningTime(LocalTime.of(9, 0));
+      library.setClosingTime(LocalTime.of(21, 0));
+      libraries.add(library);
+    }
+    return libraries;
+  }
+}
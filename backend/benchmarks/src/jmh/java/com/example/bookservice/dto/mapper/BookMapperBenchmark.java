@@ -0,0 +1,103 @@
+package com.example.bookservice.dto.mapper;
+
+import com.example.benchmarks.RepositoryStubs;
+import com.example.benchmarks.SyntheticCatalog;
+import com.example.bookservice.model.BookCopy;
+import com.example.bookservice.repository.CopiesRepository;
+import com.example.shared.model.Book;
+import com.example.shared.model.Library;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.PageImpl;
+
+// Маппинг страницы книг в BookResponse; репозиторий экземпляров - заглушка в памяти
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookMapperBenchmark {
+
+  @Param({"20", "1000"})
+  private int bookCount;
+
+  @Param({"3"})
+  private int authorsPerBook;
+
+  @Param({"5"})
+  private int copiesPerBook;
+
+  private BookMapper bookMapper;
+  private List<Book> books;
+  private Map<Long, List<BookCopy>> copiesByBookId;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    books = SyntheticCatalog.books(bookCount, authorsPerBook);
+    List<Library> libraries = SyntheticCatalog.libraries(10);
+
+    copiesByBookId = new HashMap<>();
+    List<BookCopy> allCopies = new ArrayList<>();
+    long copyId = 1;
+    for (Book book : books) {
+      List<BookCopy> copies = new ArrayList<>(copiesPerBook);
+      for (int i = 0; i < copiesPerBook; i++, copyId++) {
+        copies.add(
+            new BookCopy(
+                copyId,
+                book,
+                libraries.get((int) (copyId % libraries.size())),
+                "INV-" + copyId,
+                copyId % 3 != 0));
+      }
+      copiesByBookId.put(book.getId(), copies);
+      allCopies.addAll(copies);
+    }
+
+    CopiesRepository copiesRepository =
+        RepositoryStubs.stub(
+            CopiesRepository.class,
+            Map.of(
+                "findByBookId",
+                args ->
+                    new PageImpl<>(
+                        copiesByBookId.getOrDefault((Long) args[0], Collections.emptyList())),
+                "findWithLibraryByBookIdIn",
+                args -> allCopies));
+    bookMapper = new BookMapper(copiesRepository, new BookCopyMapper());
+  }
+
+  // Путь с запросом экземпляров на каждую книгу
+  @Benchmark
+  public void toResponse(Blackhole blackhole) {
+    for (Book book : books) {
+      blackhole.consume(bookMapper.toResponse(book));
+    }
+  }
+
+  // Путь страницы: один запрос экземпляров и группировка по книгам
+  @Benchmark
+  public Object toResponses() {
+    return bookMapper.toResponses(books);
+  }
+
+  // Чистый маппинг без обращения к репозиторию
+  @Benchmark
+  public void toResponseWithCopies(Blackhole blackhole) {
+    for (Book book : books) {
+      blackhole.consume(bookMapper.toResponse(book, copiesByBookId.get(book.getId())));
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package com.example.bookservice.search;
+
+import com.example.bookservice.dto.BookSearchRequest;
+import com.example.shared.model.Author;
+import com.example.shared.model.Book;
+import com.example.shared.model.Genre;
+import com.example.shared.model.Publisher;
+import com.example.shared.model.Theme;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Поиск по bitmap-индексу на синтетическом каталоге; сравнение - SpecificationSearchBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CatalogSearchIndexBenchmark {
+
+  private static final String[] WORDS = {
+    "war", "peace", "night", "river", "garden", "empire", "shadow", "winter", "island", "letters"
+  };
+
+  @Param({"100000", "1000000"})
+  private int bookCount;
+
+  @Param({"50"})
+  private int genreCount;
+
+  @Param({"5000"})
+  private int authorCount;
+
+  private CatalogSearchIndex index;
+
+  private BookSearchRequest genreAndTheme;
+  private BookSearchRequest genreThemeAvailable;
+  private BookSearchRequest authorsAndPublishers;
+  private BookSearchRequest textPrefix;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random random = new Random(42);
+    List<Genre> genres = new ArrayList<>();
+    for (int i = 0; i < genreCount; i++) {
+      Genre genre = new Genre();
+      genre.setName("genre-" + i);
+      genres.add(genre);
+    }
+    List<Theme> themes = new ArrayList<>();
+    for (int i = 0; i < 30; i++) {
+      Theme theme = new Theme();
+      theme.setName("theme-" + i);
+      themes.add(theme);
+    }
+    List<Publisher> publishers = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      Publisher publisher = new Publisher();
+      publisher.setName("publisher-" + i);
+      publishers.add(publisher);
+    }
+    List<Author> authors = new ArrayList<>();
+    for (int i = 0; i < authorCount; i++) {
+      Author author = new Author();
+      author.setName("name" + i);
+      author.setSurname("surname" + i);
+      authors.add(author);
+    }
+
+    List<Book> books = new ArrayList<>(bookCount);
+    List<Long> withCopies = new ArrayList<>();
+    List<Long> available = new ArrayList<>();
+    for (long id = 1; id <= bookCount; id++) {
+      Book book = new Book();
+      book.setId(id);
+      String firstWord = WORDS[random.nextInt(WORDS.length)];
+      String secondWord = WORDS[random.nextInt(WORDS.length)];
+      book.setTitle(firstWord + " " + secondWord + " " + id);
+      book.setGenre(genres.get(random.nextInt(genres.size())));
+      book.setTheme(themes.get(random.nextInt(themes.size())));
+      book.setPublisher(publishers.get(random.nextInt(publishers.size())));
+      book.setAuthors(List.of(authors.get(random.nextInt(authors.size()))));
+      books.add(book);
+
+      if (random.nextInt(10) < 9) {
+        withCopies.add(id);
+        if (random.nextInt(10) < 7) {
+          available.add(id);
+        }
+      }
+    }
+
+    index = new CatalogSearchIndex(null, null, null);
+    index.load(books, withCopies, available);
+
+    genreAndTheme = new BookSearchRequest();
+    genreAndTheme.setGenres(List.of("genre-1", "genre-2"));
+    genreAndTheme.setThemes(List.of("theme-3"));
+
+    genreThemeAvailable = new BookSearchRequest();
+    genreThemeAvailable.setGenres(List.of("genre-1", "genre-2"));
+    genreThemeAvailable.setThemes(List.of("theme-3"));
+    genreThemeAvailable.setAvailable(true);
+
+    authorsAndPublishers = new BookSearchRequest();
+    authorsAndPublishers.setAuthors(List.of("name1 surname1", "name2 surname2", "name3 surname3"));
+    authorsAndPublishers.setPublishers(List.of("publisher-1", "publisher-2"));
+
+    textPrefix = new BookSearchRequest();
+    textPrefix.setName("gard");
+    textPrefix.setGenres(List.of("genre-1"));
+  }
+
+  @Benchmark
+  public Object genreAndTheme() {
+    return index.search(genreAndTheme);
+  }
+
+  @Benchmark
+  public Object genreThemeAvailable() {
+    return index.search(genreThemeAvailable);
+  }
+
+  @Benchmark
+  public Object authorsAndPublishers() {
+    return index.search(authorsAndPublishers);
+  }
+
+  @Benchmark
+  public Object textPrefix() {
+    return index.search(textPrefix);
+  }
+}
@@ -0,0 +1,139 @@
+package com.example.bookservice.search;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+// SQL, который строят hasGenre + hasTheme + hasAvailableCopies и matchesText, на живой БД
+// с каталогом.
+// Адрес БД: -Dbenchmark.jdbc.url, -Dbenchmark.jdbc.user, -Dbenchmark.jdbc.password
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpecificationSearchBenchmark {
+
+  private static final String PAGE_SQL =
+      """
+          SELECT b.id
+          FROM book b
+          JOIN genre g ON g.id = b.genre_id
+          JOIN theme t ON t.id = b.theme_id
+          WHERE g.name IN (?, ?)
+            AND t.name IN (?)
+            AND b.available_copies > 0
+          ORDER BY b.id
+          LIMIT 20
+      """;
+
+  private static final String COUNT_SQL =
+      """
+          SELECT COUNT(b.id)
+          FROM book b
+          JOIN genre g ON g.id = b.genre_id
+          JOIN theme t ON t.id = b.theme_id
+          WHERE g.name IN (?, ?)
+            AND t.name IN (?)
+            AND b.available_copies > 0
+      """;
+
+  // matchesText: id из UNION совпадений по названию и по "имя фамилия" автора
+  private static final String TEXT_MATCH_SQL =
+      """
+          b.id IN (
+              SELECT b2.id FROM book b2 WHERE lower(b2.title) LIKE ? ESCAPE '\\'
+              UNION
+              SELECT ab.book_id
+              FROM author a
+              JOIN author_books ab ON ab.author_id = a.id
+              WHERE lower(a.name || ' ' || a.surname) LIKE ? ESCAPE '\\')
+      """;
+
+  private static final String TEXT_PAGE_SQL =
+      "SELECT b.id FROM book b WHERE "
+          + TEXT_MATCH_SQL
+          + " ORDER BY similarity(lower(b.title), ?) DESC, b.id LIMIT 20";
+
+  private static final String TEXT_COUNT_SQL =
+      "SELECT COUNT(b.id) FROM book b WHERE " + TEXT_MATCH_SQL;
+
+  private Connection connection;
+  private PreparedStatement pageStatement;
+  private PreparedStatement countStatement;
+  private PreparedStatement textPageStatement;
+  private PreparedStatement textCountStatement;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException {
+    connection =
+        DriverManager.getConnection(
+            System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5432/boobook"),
+            System.getProperty("benchmark.jdbc.user", "admin"),
+            System.getProperty("benchmark.jdbc.password", "admin"));
+    pageStatement = prepare(PAGE_SQL);
+    countStatement = prepare(COUNT_SQL);
+    textPageStatement = prepareText(TEXT_PAGE_SQL, true);
+    textCountStatement = prepareText(TEXT_COUNT_SQL, false);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws SQLException {
+    connection.close();
+  }
+
+  // Страница и count - как Page из JpaSpecificationExecutor.findAll(spec, pageable)
+  @Benchmark
+  public long genreThemeAvailable() throws SQLException {
+    return pageAndCount(pageStatement, countStatement);
+  }
+
+  @Benchmark
+  public long textSearch() throws SQLException {
+    return pageAndCount(textPageStatement, textCountStatement);
+  }
+
+  private static long pageAndCount(PreparedStatement page, PreparedStatement count)
+      throws SQLException {
+    long checksum = 0;
+    try (ResultSet rows = page.executeQuery()) {
+      while (rows.next()) {
+        checksum += rows.getLong(1);
+      }
+    }
+    try (ResultSet total = count.executeQuery()) {
+      total.next();
+      checksum += total.getLong(1);
+    }
+    return checksum;
+  }
+
+  private PreparedStatement prepare(String sql) throws SQLException {
+    PreparedStatement statement = connection.prepareStatement(sql);
+    statement.setString(1, System.getProperty("benchmark.genre1", "genre-1"));
+    statement.setString(2, System.getProperty("benchmark.genre2", "genre-2"));
+    statement.setString(3, System.getProperty("benchmark.theme", "theme-3"));
+    return statement;
+  }
+
+  private PreparedStatement prepareText(String sql, boolean ranked) throws SQLException {
+    String text = System.getProperty("benchmark.text", "мир").trim().toLowerCase();
+    PreparedStatement statement = connection.prepareStatement(sql);
+    statement.setString(1, "%" + text + "%");
+    statement.setString(2, "%" + text + "%");
+    if (ranked) {
+      statement.setString(3, text);
+    }
+    return statement;
+  }
+}
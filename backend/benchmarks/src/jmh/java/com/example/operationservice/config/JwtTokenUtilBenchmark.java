@@ -0,0 +1,67 @@
+package com.example.operationservice.config;
+
+import io.jsonwebtoken.Jwts;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Разбор токена через CachedTokenParser, как в JwtTokenUtil. Токены подписаны своим RSA-ключом,
+// поэтому бенчмарк строит собственный парсер и кэш и не трогает кэш JwtTokenUtil.
+// tokenCount=1 - всегда попадание в кэш; tokenCount больше размера LRU (10000) при
+// циклическом обходе - всегда промах, то есть проверка подписи RSA на каждый вызов
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtTokenUtilBenchmark {
+
+  @Param({"1", "20000"})
+  private int tokenCount;
+
+  private CachedTokenParser parser;
+  private String[] tokens;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() throws NoSuchAlgorithmException {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(2048);
+    KeyPair keyPair = generator.generateKeyPair();
+    parser = new CachedTokenParser(Jwts.parser().verifyWith(keyPair.getPublic()).build(), 10_000);
+
+    Date expiration = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1));
+    tokens = new String[tokenCount];
+    for (int i = 0; i < tokenCount; i++) {
+      tokens[i] =
+          Jwts.builder()
+              .subject("user-" + i)
+              .claim("preferred_username", "user" + i)
+              .claim("given_name", "Name" + i)
+              .claim("family_name", "Surname" + i)
+              .claim("email", "user" + i + "@example.com")
+              .claim("realm_access", Map.of("roles", List.of("ROLE_LIBRARIAN")))
+              .expiration(expiration)
+              .signWith(keyPair.getPrivate())
+              .compact();
+    }
+  }
+
+  @Benchmark
+  public Object parseToken() {
+    String token = tokens[next];
+    next = (next + 1) % tokens.length;
+    return parser.parse(token);
+  }
+}
@@ -0,0 +1,137 @@
+package com.example.operationservice.dto.mapper;
+
+import com.example.benchmarks.SyntheticCatalog;
+import com.example.operationservice.model.BookCopy;
+import com.example.operationservice.model.BookTransaction;
+import com.example.operationservice.model.PendingRequestView;
+import com.example.operationservice.model.Status;
+import com.example.shared.model.Author;
+import com.example.shared.model.Book;
+import com.example.shared.model.Library;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Маппинг выдач в ответы API: короткий BookTransactionResponse и строка очереди заявок
+// TransactionResponse с разбором JSON авторов
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransactionMapperBenchmark {
+
+  @Param({"100", "10000"})
+  private int transactionCount;
+
+  @Param({"3"})
+  private int authorsPerBook;
+
+  private final TransactionMapper transactionMapper = new TransactionMapper();
+  private List<BookTransaction> transactions;
+  private List<PendingRequestView> pendingRequests;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    List<Book> books = SyntheticCatalog.books(Math.max(1, transactionCount / 4), authorsPerBook);
+    List<Library> libraries = SyntheticCatalog.libraries(10);
+    Status[] statuses = Status.values();
+    LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    transactions = new ArrayList<>(transactionCount);
+    pendingRequests = new ArrayList<>(transactionCount);
+    for (long id = 1; id <= transactionCount; id++) {
+      BookCopy copy =
+          new BookCopy(
+              id,
+              books.get((int) (id % books.size())),
+              libraries.get((int) (id % libraries.size())),
+              "INV-" + id,
+              false);
+
+      BookTransaction transaction = new BookTransaction();
+      transaction.setId(id);
+      transaction.setBookCopy(copy);
+      transaction.setUserId("user-" + (id % 500));
+      transaction.setCreationDate(start.plusMinutes(id));
+      transaction.setBorrowDate(start.plusMinutes(id).plusDays(1));
+      transaction.setStatus(statuses[(int) (id % statuses.length)]);
+      transaction.setComment("comment " + id);
+      transactions.add(transaction);
+      pendingRequests.add(
+          pendingRequest(id, copy.getInventoryNumber(), copy.getBook(), transaction.getStatus()));
+    }
+  }
+
+  // Строка в том виде, в каком её отдаёт findPendingRequestsByLibraryIdAfter
+  private static PendingRequestView pendingRequest(
+      long id, String inventoryNumber, Book book, Status status) {
+    StringBuilder authors = new StringBuilder("[");
+    for (Author author : book.getAuthors()) {
+      if (authors.length() > 1) {
+        authors.append(", ");
+      }
+      authors
+          .append("{\"id\" : ")
+          .append(author.getId())
+          .append(", \"name\" : \"")
+          .append(author.getName())
+          .append("\", \"surname\" : \"")
+          .append(author.getSurname())
+          .append("\", \"birthDate\" : \"")
+          .append(author.getBirthDate())
+          .append("\"}");
+    }
+    String authorsJson = authors.append("]").toString();
+
+    return new PendingRequestView() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public String getInventoryNumber() {
+        return inventoryNumber;
+      }
+
+      @Override
+      public String getTitle() {
+        return book.getTitle();
+      }
+
+      @Override
+      public String getStatus() {
+        return status.name();
+      }
+
+      @Override
+      public String getAuthors() {
+        return authorsJson;
+      }
+    };
+  }
+
+  @Benchmark
+  public void toBookTransactionResponse(Blackhole blackhole) {
+    for (BookTransaction transaction : transactions) {
+      blackhole.consume(transactionMapper.toBookTransactionResponse(transaction));
+    }
+  }
+
+  @Benchmark
+  public void toTransactionResponse(Blackhole blackhole) {
+    for (PendingRequestView request : pendingRequests) {
+      blackhole.consume(transactionMapper.toTransactionResponse(request));
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.example.operationservice.service;
+
+import com.example.benchmarks.RepositoryStubs;
+import com.example.benchmarks.SyntheticCatalog;
+import com.example.operationservice.model.BookAvailabilityCount;
+import com.example.operationservice.model.BookModelForReport;
+import com.example.operationservice.repository.BookRepository;
+import com.example.operationservice.repository.CopiesRepository;
+import com.example.shared.model.Book;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Отчёт по библиотеке: BookModelForReport.toModel и цикл сборки отчёта в getReport.
+// Подсчёты и книги отдают заглушки репозиториев, измеряется только работа в памяти
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LibraryReportBenchmark {
+
+  @Param({"100", "10000"})
+  private int bookCount;
+
+  @Param({"3"})
+  private int authorsPerBook;
+
+  private List<Book> books;
+  private LibraryService libraryService;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    books = SyntheticCatalog.books(bookCount, authorsPerBook);
+
+    List<BookAvailabilityCount> counts = new ArrayList<>(bookCount);
+    for (Book book : books) {
+      counts.add(new BookAvailabilityCount(book.getId(), book.getId() % 7));
+    }
+
+    CopiesRepository copiesRepository =
+        RepositoryStubs.stub(
+            CopiesRepository.class, Map.of("countAvailableByLibraryId", args -> counts));
+    BookRepository bookRepository =
+        RepositoryStubs.stub(
+            BookRepository.class, Map.of("findAllWithDetailsByIdIn", args -> books));
+    libraryService = new LibraryService(copiesRepository, bookRepository);
+  }
+
+  @Benchmark
+  public void toModel(Blackhole blackhole) {
+    for (Book book : books) {
+      blackhole.consume(BookModelForReport.toModel(book));
+    }
+  }
+
+  @Benchmark
+  public Object getReport() {
+    return libraryService.getReport(1L, null);
+  }
+}
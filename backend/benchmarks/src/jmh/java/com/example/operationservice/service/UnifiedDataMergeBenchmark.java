@@ -0,0 +1,93 @@
+package com.example.operationservice.service;
+
+import com.example.operationservice.model.UnifiedData;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Лента активности: слияние отсортированных оценок и выдач против сортировки общего списка
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UnifiedDataMergeBenchmark {
+
+  @Param({"100", "10000"})
+  private int eventsPerSource;
+
+  @Param({"21"})
+  private int pageLimit;
+
+  private List<UnifiedData> ratings;
+  private List<UnifiedData> transactions;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random random = new Random(42);
+    LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+    ratings = events("Rating", random, start);
+    transactions = events("BookTransaction", random, start);
+  }
+
+  // Репозитории отдают потоки уже упорядоченными, как в ленте
+  private List<UnifiedData> events(String type, Random random, LocalDateTime start) {
+    List<UnifiedData> events = new ArrayList<>(eventsPerSource);
+    for (long id = 1; id <= eventsPerSource; id++) {
+      events.add(
+          new UnifiedData(
+              id,
+              type,
+              start.plusMinutes(random.nextInt(eventsPerSource * 10)),
+              "user-1",
+              null,
+              null,
+              null,
+              "Book " + id,
+              List.of(),
+              null,
+              null,
+              null,
+              null,
+              null));
+    }
+    events.sort(UnifiedDataService.FEED_ORDER);
+    return events;
+  }
+
+  @Benchmark
+  public Object mergeAll() {
+    return UnifiedDataService.mergeSorted(
+        List.<Iterator<UnifiedData>>of(ratings.iterator(), transactions.iterator()),
+        UnifiedDataService.FEED_ORDER,
+        Integer.MAX_VALUE);
+  }
+
+  @Benchmark
+  public Object mergePage() {
+    return UnifiedDataService.mergeSorted(
+        List.<Iterator<UnifiedData>>of(ratings.iterator(), transactions.iterator()),
+        UnifiedDataService.FEED_ORDER,
+        pageLimit);
+  }
+
+  // Прежний вариант: склеить оба списка и отсортировать целиком
+  @Benchmark
+  public Object concatAndSort() {
+    List<UnifiedData> all = new ArrayList<>(ratings.size() + transactions.size());
+    all.addAll(ratings);
+    all.addAll(transactions);
+    all.sort(UnifiedDataService.FEED_ORDER);
+    return all;
+  }
+}
@@ -4,6 +4,7 @@ import com.example.bookservice.dto.LibraryCreateRequest;
 import com.example.bookservice.dto.LibraryResponse;
 import com.example.bookservice.service.BookCopyCsvService;
 import com.example.bookservice.service.LibraryService;
+import com.example.shared.metrics.QueryBudget;
 import jakarta.validation.Valid;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
@@ -40,12 +41,13 @@ public class LibraryController {
     return ResponseEntity.ok(libraryService.create(request));
   }
 
+  // Поиск книг и библиотек идёт на каждую порцию файла, число запросов растёт с его размером
+  @QueryBudget(QueryBudget.UNLIMITED)
   @PreAuthorize("hasRole('LIBRARIAN')")
   @PostMapping("/upload")
-  public ResponseEntity<String> importBookCopies(@RequestParam("file") MultipartFile file) {
+  public ResponseEntity<?> importBookCopies(@RequestParam("file") MultipartFile file) {
     try {
-      bookCopyCsvService.importBookCopiesFromCsv(file.getInputStream());
-      return ResponseEntity.ok("Book copies imported successfully");
+      return ResponseEntity.ok(bookCopyCsvService.importBookCopiesFromCsv(file.getInputStream()));
     } catch (Exception e) {
       return ResponseEntity.status(HttpStatus.BAD_REQUEST)
           .body("Error importing book copies: " + e.getMessage());
@@ -1,15 +1,22 @@
 package com.example.bookservice.api.v2;
 
 import com.example.bookservice.dto.*;
+import com.example.bookservice.service.BookExportService;
+import com.example.bookservice.service.BookImportService;
 import com.example.bookservice.service.BookService;
+import com.example.shared.dto.CursorPageResponse;
 import jakarta.validation.Valid;
+import java.io.InputStream;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping(EndpointsV2.BOOKS)
@@ -17,6 +24,8 @@ import org.springframework.web.bind.annotation.*;
 public class BookControllerV2 {
 
   private final BookService bookService;
+  private final BookImportService bookImportService;
+  private final BookExportService bookExportService;
 
   @GetMapping
   public ResponseEntity<Page<BookResponse>> findBooks(
@@ -24,6 +33,21 @@ public class BookControllerV2 {
     return ResponseEntity.ok(bookService.findBooks(request, pageable));
   }
 
+  @GetMapping("/scroll")
+  public ResponseEntity<CursorPageResponse<BookResponse>> scrollBooks(
+      @ModelAttribute BookSearchRequest request,
+      @RequestParam(defaultValue = "id") String sort,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int limit) {
+    return ResponseEntity.ok(bookService.scrollBooks(request, sort, cursor, limit));
+  }
+
+  @GetMapping("/facets")
+  public ResponseEntity<BookFacetsResponse> findBooksWithFacets(
+      @ModelAttribute BookSearchRequest request, Pageable pageable) {
+    return ResponseEntity.ok(bookService.findBooksWithFacets(request, pageable));
+  }
+
   @GetMapping("/{id}")
   public ResponseEntity<BookResponse> getBook(@PathVariable Long id) {
     return ResponseEntity.ok(bookService.findBookById(id));
@@ -35,6 +59,34 @@ public class BookControllerV2 {
     return ResponseEntity.status(HttpStatus.CREATED).body(bookService.createBook(request));
   }
 
+  // Выгрузка каталога с авторами и экземплярами потоком: format=ndjson или csv
+  @PreAuthorize("hasRole('LIBRARIAN')")
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportBooks(
+      @RequestParam(defaultValue = "ndjson") String format) {
+    boolean csv = "csv".equalsIgnoreCase(format);
+    return ResponseEntity.ok()
+        .contentType(csv ? MediaType.parseMediaType("text/csv") : MediaType.APPLICATION_NDJSON)
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=catalog." + (csv ? "csv" : "ndjson"))
+        .body(output -> bookExportService.exportBooks(csv, output));
+  }
+
+  // Массовый импорт: тело NDJSON или CSV, в ответ по строке NDJSON на каждую порцию
+  @PreAuthorize("hasRole('LIBRARIAN')")
+  @PostMapping(
+      value = "/import",
+      consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"},
+      produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> importBooks(
+      @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) {
+    boolean csv = contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"));
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(output -> bookImportService.importBooks(body, csv, output));
+  }
+
   @PreAuthorize("hasRole('LIBRARIAN')")
   @PutMapping("/{id}")
   public ResponseEntity<BookResponse> updateBook(
@@ -4,6 +4,7 @@ import com.example.bookservice.dto.BookCopyCreateRequest;
 import com.example.bookservice.dto.BookCopyResponse;
 import com.example.bookservice.dto.BookCopyUpdateRequest;
 import com.example.bookservice.service.CopiesService;
+import com.example.shared.dto.CursorPageResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -28,6 +29,16 @@ public class CopiesControllerV2 {
     return ResponseEntity.ok(copiesService.findBooks(bookId, libraryId, pageable));
   }
 
+  @PreAuthorize("hasRole('LIBRARIAN')")
+  @GetMapping("/scroll")
+  public ResponseEntity<CursorPageResponse<BookCopyResponse>> scrollCopies(
+      @RequestParam(required = false) Long bookId,
+      @RequestParam(required = false) Long libraryId,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int limit) {
+    return ResponseEntity.ok(copiesService.scrollCopies(bookId, libraryId, cursor, limit));
+  }
+
   @PreAuthorize("hasRole('LIBRARIAN')")
   @PostMapping
   public ResponseEntity<BookCopyResponse> createCopy(
@@ -0,0 +1,42 @@
+package com.example.bookservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Кэш справочников: жанры, темы, издательства, авторы, библиотеки
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+  public static final String GENRES = "genres";
+  public static final String GENRE_BY_ID = "genreById";
+  public static final String THEMES = "themes";
+  public static final String THEME_BY_ID = "themeById";
+  public static final String PUBLISHERS = "publishers";
+  public static final String PUBLISHER_BY_ID = "publisherById";
+  public static final String AUTHORS = "authors";
+  public static final String LIBRARIES = "libraries";
+
+  // Имена кэшей фиксированы, чтобы actuator привязал метрики cache.gets (hit/miss) при старте.
+  // Прокси откладывает put/evict до коммита: параллельное чтение не закэширует старые данные
+  @Bean
+  public CacheManager cacheManager(@Value("${reference-cache.spec}") String spec) {
+    CaffeineCacheManager cacheManager =
+        new CaffeineCacheManager(
+            GENRES,
+            GENRE_BY_ID,
+            THEMES,
+            THEME_BY_ID,
+            PUBLISHERS,
+            PUBLISHER_BY_ID,
+            AUTHORS,
+            LIBRARIES);
+    cacheManager.setCacheSpecification(spec);
+    return new TransactionAwareCacheManagerProxy(cacheManager);
+  }
+}
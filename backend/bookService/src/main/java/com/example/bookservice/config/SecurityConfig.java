@@ -3,6 +3,7 @@ package com.example.bookservice.config;
 import java.util.List;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 // import org.springframework.security.config.Customizer; // Не используется
@@ -25,11 +26,15 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 @EnableMethodSecurity
 public class SecurityConfig {
 
+  @Value(
+      "${spring.security.oauth2.resourceserver.jwt.jwk-set-uri:"
+          + "http://keycloak:8080/realms/boobook/protocol/openid-connect/certs}")
+  private String jwkSetUri;
+
   @Bean
   public JwtDecoder jwtDecoder() {
     NimbusJwtDecoder decoder =
-        NimbusJwtDecoder.withJwkSetUri(
-                "http://keycloak:8080/realms/boobook/protocol/openid-connect/certs")
+        NimbusJwtDecoder.withJwkSetUri(jwkSetUri)
             .jwsAlgorithm(org.springframework.security.oauth2.jose.jws.SignatureAlgorithm.RS256)
             .build();
     decoder.setJwtValidator(org.springframework.security.oauth2.jwt.JwtValidators.createDefault());
@@ -53,6 +58,8 @@ public class SecurityConfig {
             auth ->
                 auth.requestMatchers("/swagger-ui/**", "/v3/**")
                     .permitAll()
+                    .requestMatchers("/actuator/health", "/actuator/prometheus")
+                    .permitAll() // Проверка живости и сбор метрик Prometheus
                     .requestMatchers("/api/v1/library/find", "/api/v1/library/books/**")
                     .permitAll() // Публичные endpoints v1
                     .requestMatchers("/api/v2/books", "/api/v2/books/**")
@@ -0,0 +1,15 @@
+package com.example.bookservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class BookCopyImportResponse {
+  private long processed;
+  private long imported;
+  private long failed;
+  private List<String> errors = new ArrayList<>();
+}
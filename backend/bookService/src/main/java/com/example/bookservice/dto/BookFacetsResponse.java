@@ -0,0 +1,17 @@
+package com.example.bookservice.dto;
+
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.domain.Page;
+
+@Getter
+@Setter
+public class BookFacetsResponse {
+  private Page<BookResponse> books;
+  private Map<String, Long> genres = new TreeMap<>();
+  private Map<String, Long> themes = new TreeMap<>();
+  private Map<String, Long> publishers = new TreeMap<>();
+  private Map<String, Long> authors = new TreeMap<>();
+}
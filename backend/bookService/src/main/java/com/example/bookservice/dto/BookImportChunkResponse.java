@@ -0,0 +1,18 @@
+package com.example.bookservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+// Результат одной порции массового импорта книг, отдаётся строкой NDJSON
+@Getter
+@Setter
+public class BookImportChunkResponse {
+  private int chunk;
+  private long processed;
+  private long imported;
+  private long duplicates;
+  private long failed;
+  private List<String> errors = new ArrayList<>();
+}
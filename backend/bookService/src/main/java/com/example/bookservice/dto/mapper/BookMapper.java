@@ -8,6 +8,8 @@ import com.example.shared.model.Author;
 import com.example.shared.model.Book;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -20,6 +22,39 @@ public class BookMapper {
   private final BookCopyMapper bookCopyMapper;
 
   public BookResponse toResponse(Book book) {
+    List<BookCopy> copies;
+    try {
+      copies =
+          book.getId() != null
+              ? copiesRepository
+                  .findByBookId(book.getId(), org.springframework.data.domain.Pageable.unpaged())
+                  .getContent()
+              : Collections.emptyList();
+    } catch (Exception e) {
+      copies = Collections.emptyList();
+    }
+    return toResponse(book, copies);
+  }
+
+  // Маппинг страницы: копии всех книг загружаются одним запросом вместо запроса на каждую книгу
+  public List<BookResponse> toResponses(List<Book> books) {
+    List<Long> bookIds =
+        books.stream().map(Book::getId).filter(Objects::nonNull).collect(Collectors.toList());
+    Map<Long, List<BookCopy>> copiesByBookId =
+        bookIds.isEmpty()
+            ? Collections.emptyMap()
+            : copiesRepository.findWithLibraryByBookIdIn(bookIds).stream()
+                .collect(Collectors.groupingBy(copy -> copy.getBook().getId()));
+
+    return books.stream()
+        .map(
+            book ->
+                toResponse(
+                    book, copiesByBookId.getOrDefault(book.getId(), Collections.emptyList())))
+        .collect(Collectors.toList());
+  }
+
+  public BookResponse toResponse(Book book, List<BookCopy> copies) {
     BookResponse response = new BookResponse();
     response.setId(book.getId());
     response.setTitle(book.getTitle());
@@ -35,27 +70,11 @@ public class BookMapper {
           book.getAuthors().stream().map(this::toAuthorResponse).collect(Collectors.toList()));
     }
 
-    try {
-      if (book.getId() != null) {
-        List<BookCopy> copies =
-            copiesRepository
-                .findByBookId(book.getId(), org.springframework.data.domain.Pageable.unpaged())
-                .getContent();
-        if (copies != null && !copies.isEmpty()) {
-          response.setCopies(
-              copies.stream()
-                  .map(bookCopyMapper::toResponse)
-                  .filter(copy -> copy != null)
-                  .collect(Collectors.toList()));
-        } else {
-          response.setCopies(Collections.emptyList());
-        }
-      } else {
-        response.setCopies(Collections.emptyList());
-      }
-    } catch (Exception e) {
-      response.setCopies(Collections.emptyList());
-    }
+    response.setCopies(
+        copies.stream()
+            .map(bookCopyMapper::toResponse)
+            .filter(copy -> copy != null)
+            .collect(Collectors.toList()));
 
     return response;
   }
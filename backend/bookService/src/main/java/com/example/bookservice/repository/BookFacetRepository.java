@@ -0,0 +1,14 @@
+package com.example.bookservice.repository;
+
+import com.example.shared.model.Book;
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface BookFacetRepository {
+
+  // Строки [genre, theme, publisher, count] по книгам, подходящим под spec
+  List<Object[]> countByGenreThemePublisher(Specification<Book> spec);
+
+  // Строки [name, surname, count] по книгам, подходящим под spec
+  List<Object[]> countByAuthor(Specification<Book> spec);
+}
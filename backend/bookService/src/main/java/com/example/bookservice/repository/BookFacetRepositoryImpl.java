@@ -0,0 +1,69 @@
+package com.example.bookservice.repository;
+
+import com.example.shared.model.Author;
+import com.example.shared.model.Book;
+import com.example.shared.model.Genre;
+import com.example.shared.model.Publisher;
+import com.example.shared.model.Theme;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.util.Collections;
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+
+public class BookFacetRepositoryImpl implements BookFacetRepository {
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Override
+  public List<Object[]> countByGenreThemePublisher(Specification<Book> spec) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+    Root<Book> root = query.from(Book.class);
+    Join<Book, Genre> genre = root.join("genre", JoinType.LEFT);
+    Join<Book, Theme> theme = root.join("theme", JoinType.LEFT);
+    Join<Book, Publisher> publisher = root.join("publisher", JoinType.LEFT);
+
+    // Одна группировка по всем трём измерениям, разбор по фасетам - в сервисе
+    query
+        .multiselect(
+            genre.get("name"), theme.get("name"), publisher.get("name"), cb.countDistinct(root))
+        .groupBy(genre.get("name"), theme.get("name"), publisher.get("name"));
+    applySpecification(spec, root, query, cb);
+    return entityManager.createQuery(query).getResultList();
+  }
+
+  @Override
+  public List<Object[]> countByAuthor(Specification<Book> spec) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+    Root<Book> root = query.from(Book.class);
+    Join<Book, Author> author = root.join("authors");
+
+    query
+        .multiselect(author.get("name"), author.get("surname"), cb.countDistinct(root))
+        .groupBy(author.get("name"), author.get("surname"));
+    applySpecification(spec, root, query, cb);
+    return entityManager.createQuery(query).getResultList();
+  }
+
+  private static void applySpecification(
+      Specification<Book> spec,
+      Root<Book> root,
+      CriteriaQuery<Object[]> query,
+      CriteriaBuilder cb) {
+    Predicate predicate = spec.toPredicate(root, query, cb);
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    // Сортировка по релевантности из matchesText несовместима с GROUP BY
+    query.orderBy(Collections.<Order>emptyList());
+  }
+}
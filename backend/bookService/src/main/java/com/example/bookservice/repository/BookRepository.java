@@ -1,30 +1,84 @@
 package com.example.bookservice.repository;
 
 import com.example.shared.model.Book;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
-public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
+public interface BookRepository
+    extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>, BookFacetRepository {
   Book findBookByISBN(String isbn);
 
-  @Query(value = "SELECT get_average_book_rating(:bookId)", nativeQuery = true)
+  @Query("SELECT b.ISBN, b.id FROM Book b WHERE b.ISBN IN :isbns")
+  List<Object[]> findIdsByIsbnIn(@Param("isbns") Collection<String> isbns);
+
+  @Query("SELECT b.averageRating FROM Book b WHERE b.id = :bookId")
   Float getAverageBookRating(@Param("bookId") Long bookId);
 
+  // Атомарно сдвигает счётчики экземпляров книги: общие и в библиотеке (V14)
+  @Modifying
+  @Query(
+      value =
+          """
+              WITH per_library AS (
+                  INSERT INTO book_library_copies
+                      (book_id, library_id, total_copies, available_copies)
+                  VALUES (:bookId, :libraryId, :totalDelta, :availableDelta)
+                  ON CONFLICT (book_id, library_id) DO UPDATE
+                  SET total_copies = book_library_copies.total_copies + EXCLUDED.total_copies,
+                      available_copies =
+                          book_library_copies.available_copies + EXCLUDED.available_copies
+              )
+              UPDATE book
+              SET total_copies = total_copies + :totalDelta,
+                  available_copies = available_copies + :availableDelta
+              WHERE id = :bookId
+          """,
+      nativeQuery = true)
+  int adjustCopyCounters(
+      @Param("bookId") Long bookId,
+      @Param("libraryId") Long libraryId,
+      @Param("totalDelta") int totalDelta,
+      @Param("availableDelta") int availableDelta);
+
   @Query(
       value =
           """
               SELECT b.*
-              FROM books b
-              WHERE get_average_book_rating(b.book_id) >= :minRating
-                AND get_average_book_rating(b.book_id) <= :maxRating
+              FROM book b
+              WHERE b.average_rating BETWEEN :minRating AND :maxRating
           """,
       nativeQuery = true)
   List<Book> findBooksByRatingRange(
       @Param("minRating") Float minRating, @Param("maxRating") Float maxRating);
 
-  @Query("SELECT get_average_book_rating(b.id) FROM Book b WHERE b.id = :id")
+  @Query("SELECT b.averageRating FROM Book b WHERE b.id = :id")
   Float findAverageRatingByBookId(@Param("id") Long id);
+
+  @Query("SELECT b.id FROM Book b ORDER BY b.id")
+  List<Long> findAllIds();
+
+  // Серверный курсор для экспорта: строки приходят порциями по fetch size, нужна транзакция
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @EntityGraph(attributePaths = {"genre", "theme", "publisher"})
+  @Query("SELECT b FROM Book b ORDER BY b.id")
+  Stream<Book> streamAllOrderById();
+
+  @Query(
+      "SELECT DISTINCT b FROM Book b "
+          + "LEFT JOIN FETCH b.authors "
+          + "LEFT JOIN FETCH b.genre "
+          + "LEFT JOIN FETCH b.theme "
+          + "LEFT JOIN FETCH b.publisher "
+          + "WHERE b.id IN :ids")
+  List<Book> findAllWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
 }
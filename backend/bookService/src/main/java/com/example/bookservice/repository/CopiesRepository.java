@@ -1,9 +1,13 @@
 package com.example.bookservice.repository;
 
 import com.example.bookservice.model.BookCopy;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface CopiesRepository extends JpaRepository<BookCopy, Long> {
 
@@ -14,4 +18,29 @@ public interface CopiesRepository extends JpaRepository<BookCopy, Long> {
   Page<BookCopy> findByBookId(Long bookId, Pageable pageable);
 
   BookCopy findByInventoryNumber(String inventoryNumber);
+
+  // Keyset-пагинация по id: возвращают List, поэтому COUNT не выполняется
+  List<BookCopy> findByBookIdAndLibraryIdAndIdGreaterThanOrderByIdAsc(
+      Long bookId, Long libraryId, Long afterId, Pageable pageable);
+
+  List<BookCopy> findByLibraryIdAndIdGreaterThanOrderByIdAsc(
+      Long libraryId, Long afterId, Pageable pageable);
+
+  List<BookCopy> findByBookIdAndIdGreaterThanOrderByIdAsc(
+      Long bookId, Long afterId, Pageable pageable);
+
+  List<BookCopy> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+  @Query("SELECT bc FROM BookCopy bc JOIN FETCH bc.library WHERE bc.book.id IN :bookIds")
+  List<BookCopy> findWithLibraryByBookIdIn(@Param("bookIds") Collection<Long> bookIds);
+
+  boolean existsByBookId(Long bookId);
+
+  boolean existsByBookIdAndAvailableTrue(Long bookId);
+
+  @Query("SELECT DISTINCT bc.book.id FROM BookCopy bc")
+  List<Long> findBookIdsWithCopies();
+
+  @Query("SELECT DISTINCT bc.book.id FROM BookCopy bc WHERE bc.available = true")
+  List<Long> findBookIdsWithAvailableCopies();
 }
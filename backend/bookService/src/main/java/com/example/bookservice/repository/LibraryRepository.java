@@ -1,6 +1,14 @@
 package com.example.bookservice.repository;
 
 import com.example.shared.model.Library;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface LibraryRepository extends JpaRepository<Library, Long> {}
+public interface LibraryRepository extends JpaRepository<Library, Long> {
+
+  @Query("SELECT l.id FROM Library l WHERE l.id IN :ids")
+  List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,540 @@
+package com.example.bookservice.search;
+
+import com.example.bookservice.dto.BookFacetsResponse;
+import com.example.bookservice.dto.BookSearchRequest;
+import com.example.bookservice.repository.BookRepository;
+import com.example.bookservice.repository.CopiesRepository;
+import com.example.bookservice.specification.BookSpecifications;
+import com.example.shared.model.Author;
+import com.example.shared.model.Book;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Инвертированный индекс каталога в памяти: находит id книг без запроса в Postgres.
+// Списки id хранятся как сжатые bitmap, комбинация фильтров - AND/OR над ними.
+// Текстовый поиск повторяет BookSpecifications.matchesText: подстрока в названии или в
+// "имя фамилия" автора, порядок - триграммная близость названия (similarity из pg_trgm), затем id
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogSearchIndex {
+
+  private static final int BUILD_CHUNK_SIZE = 1000;
+
+  private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private final BookRepository bookRepository;
+  private final CopiesRepository copiesRepository;
+  private final TransactionTemplate transactionTemplate;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Long, IndexedBook> books = new HashMap<>();
+  private final RoaringBitmap allBooks = new RoaringBitmap();
+  // TreeMap - для поиска по префиксу слова (typeahead)
+  private final NavigableMap<String, RoaringBitmap> tokens = new TreeMap<>();
+  private final Map<String, RoaringBitmap> authors = new HashMap<>();
+  private final Map<String, RoaringBitmap> genres = new HashMap<>();
+  private final Map<String, RoaringBitmap> themes = new HashMap<>();
+  private final Map<String, RoaringBitmap> publishers = new HashMap<>();
+  // Экземпляры меняет и operationService, поэтому кроме точечных обновлений есть сверка с БД
+  private RoaringBitmap withCopies = new RoaringBitmap();
+  private RoaringBitmap withAvailableCopies = new RoaringBitmap();
+
+  @Value("${catalog-index.enabled:false}")
+  private boolean enabled;
+
+  private volatile boolean ready;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void build() {
+    if (!enabled) {
+      return;
+    }
+    long started = System.currentTimeMillis();
+    List<Long> ids = bookRepository.findAllIds();
+    loadBooks(ids);
+    loadAvailability();
+    ready = true;
+    log.info(
+        "Catalog search index built: {} books in {} ms",
+        ids.size(),
+        System.currentTimeMillis() - started);
+  }
+
+  // Книги, вставленные в обход JPA (массовый импорт); вызывается после коммита вставки
+  public void indexBooks(List<Long> bookIds) {
+    if (!enabled || bookIds.isEmpty()) {
+      return;
+    }
+    loadBooks(bookIds);
+  }
+
+  private void loadBooks(List<Long> ids) {
+    for (int from = 0; from < ids.size(); from += BUILD_CHUNK_SIZE) {
+      List<Long> chunk = ids.subList(from, Math.min(from + BUILD_CHUNK_SIZE, ids.size()));
+      List<IndexedBook> snapshots =
+          transactionTemplate.execute(
+              status ->
+                  bookRepository.findAllWithDetailsByIdIn(chunk).stream()
+                      .map(IndexedBook::of)
+                      .collect(Collectors.toList()));
+      lock.writeLock().lock();
+      try {
+        snapshots.forEach(
+            snapshot -> {
+              remove(snapshot.id);
+              put(snapshot);
+            });
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+  }
+
+  // Заполнение без обращения к БД, используется в бенчмарках
+  void load(Collection<Book> catalog, List<Long> bookIdsWithCopies, List<Long> availableBookIds) {
+    lock.writeLock().lock();
+    try {
+      catalog.stream().map(IndexedBook::of).forEach(this::put);
+      withCopies = toBitmap(bookIdsWithCopies);
+      withAvailableCopies = toBitmap(availableBookIds);
+    } finally {
+      lock.writeLock().unlock();
+    }
+    ready = true;
+  }
+
+  // Пустой Optional - запрос содержит условия, которых нет в индексе, нужно идти в БД
+  public Optional<List<Long>> search(BookSearchRequest request) {
+    if (!ready
+        || request.getMinCopies() != null
+        || request.getMaxCopies() != null
+        || (request.getRatingMIN() != null && request.getRatingMAX() != null)) {
+      return Optional.empty();
+    }
+
+    String text = BookSpecifications.normalizeText(request.getName());
+    List<String> queryTokens = tokenize(text);
+
+    lock.readLock().lock();
+    try {
+      RoaringBitmap result = null;
+      result = intersect(result, facet(authors, authorKeys(request.getAuthors())));
+      result = intersect(result, facet(genres, request.getGenres()));
+      result = intersect(result, facet(themes, request.getThemes()));
+      result = intersect(result, facet(publishers, request.getPublishers()));
+      if (request.getAvailable() != null) {
+        // Наличие грузится из БД и может содержать книги, ещё не попавшие в этот индекс
+        result =
+            intersect(
+                result,
+                RoaringBitmap.and(
+                    allBooks,
+                    request.getAvailable()
+                        ? withAvailableCopies
+                        : RoaringBitmap.andNot(withCopies, withAvailableCopies)));
+      }
+      // Слова запроса после первого начинаются в тексте на границе слова, поэтому сужают
+      // кандидатов по префиксу. Первое слово может быть концом слова текста ("ар" в "мария")
+      for (int i = 1; i < queryTokens.size(); i++) {
+        result = intersect(result, prefixMatch(queryTokens.get(i)));
+      }
+
+      // Bitmap отдаёт id по возрастанию
+      int[] candidates = (result != null ? result : allBooks).toArray();
+      List<Long> ids = new ArrayList<>(candidates.length);
+      for (int id : candidates) {
+        IndexedBook book = books.get((long) id);
+        if (book != null && (text == null || book.contains(text))) {
+          ids.add((long) id);
+        }
+      }
+      if (text != null) {
+        Set<String> queryTrigrams = trigrams(text);
+        Map<Long, Float> relevance = new HashMap<>();
+        for (Long id : ids) {
+          relevance.put(id, similarity(queryTrigrams, books.get(id).titleTrigrams));
+        }
+        ids.sort(
+            Comparator.comparing((Long id) -> relevance.get(id))
+                .reversed()
+                .thenComparing(Comparator.naturalOrder()));
+      }
+      return Optional.of(ids);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public void countFacets(Collection<Long> ids, BookFacetsResponse response) {
+    lock.readLock().lock();
+    try {
+      for (Long id : ids) {
+        IndexedBook book = books.get(id);
+        if (book == null) {
+          continue;
+        }
+        increment(response.getGenres(), book.genre);
+        increment(response.getThemes(), book.theme);
+        increment(response.getPublishers(), book.publisher);
+        for (String author : book.authors) {
+          increment(response.getAuthors(), author);
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private static void increment(Map<String, Long> counts, String value) {
+    if (value != null) {
+      counts.merge(value, 1L, Long::sum);
+    }
+  }
+
+  // Изменения применяются после коммита, чтобы откат транзакции не попадал в индекс
+  public void onBookSaved(Book book) {
+    if (!enabled) {
+      return;
+    }
+    IndexedBook snapshot = IndexedBook.of(book);
+    afterCommit(
+        () -> {
+          lock.writeLock().lock();
+          try {
+            remove(snapshot.id);
+            put(snapshot);
+          } finally {
+            lock.writeLock().unlock();
+          }
+        });
+  }
+
+  // Пересчитывает признаки наличия экземпляров у книг после коммита изменений в book_copy
+  public void onCopiesChanged(Long... bookIds) {
+    if (!enabled) {
+      return;
+    }
+    afterCommit(
+        () -> {
+          for (Long bookId : bookIds) {
+            if (bookId == null) {
+              continue;
+            }
+            boolean hasCopies = copiesRepository.existsByBookId(bookId);
+            boolean hasAvailableCopies = copiesRepository.existsByBookIdAndAvailableTrue(bookId);
+            int id = Math.toIntExact(bookId);
+            lock.writeLock().lock();
+            try {
+              setBit(withCopies, id, hasCopies);
+              setBit(withAvailableCopies, id, hasAvailableCopies);
+            } finally {
+              lock.writeLock().unlock();
+            }
+          }
+        });
+  }
+
+  @Scheduled(fixedDelayString = "${catalog-index.availability-refresh-ms:60000}")
+  public void refreshAvailability() {
+    if (ready) {
+      loadAvailability();
+    }
+  }
+
+  private void loadAvailability() {
+    RoaringBitmap copies = toBitmap(copiesRepository.findBookIdsWithCopies());
+    RoaringBitmap available = toBitmap(copiesRepository.findBookIdsWithAvailableCopies());
+    lock.writeLock().lock();
+    try {
+      withCopies = copies;
+      withAvailableCopies = available;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private static RoaringBitmap toBitmap(List<Long> ids) {
+    RoaringBitmap bitmap = new RoaringBitmap();
+    for (Long id : ids) {
+      bitmap.add(Math.toIntExact(id));
+    }
+    return bitmap;
+  }
+
+  private static void setBit(RoaringBitmap bitmap, int id, boolean value) {
+    if (value) {
+      bitmap.add(id);
+    } else {
+      bitmap.remove(id);
+    }
+  }
+
+  public void onBookDeleted(Long id) {
+    if (!enabled) {
+      return;
+    }
+    afterCommit(
+        () -> {
+          lock.writeLock().lock();
+          try {
+            remove(id);
+            int bit = Math.toIntExact(id);
+            withCopies.remove(bit);
+            withAvailableCopies.remove(bit);
+          } finally {
+            lock.writeLock().unlock();
+          }
+        });
+  }
+
+  private void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    } else {
+      action.run();
+    }
+  }
+
+  private void put(IndexedBook book) {
+    books.put(book.id, book);
+    allBooks.add(book.bit);
+    for (String token : book.tokens) {
+      addPosting(tokens, token, book.bit);
+    }
+    for (String author : book.authors) {
+      addPosting(authors, author, book.bit);
+    }
+    addPosting(genres, book.genre, book.bit);
+    addPosting(themes, book.theme, book.bit);
+    addPosting(publishers, book.publisher, book.bit);
+  }
+
+  private void remove(Long id) {
+    IndexedBook book = books.remove(id);
+    if (book == null) {
+      return;
+    }
+    // Признаки наличия не трогаем: remove + put при обновлении книги экземпляры не меняет
+    allBooks.remove(book.bit);
+    for (String token : book.tokens) {
+      removePosting(tokens, token, book.bit);
+    }
+    for (String author : book.authors) {
+      removePosting(authors, author, book.bit);
+    }
+    removePosting(genres, book.genre, book.bit);
+    removePosting(themes, book.theme, book.bit);
+    removePosting(publishers, book.publisher, book.bit);
+  }
+
+  private static void addPosting(Map<String, RoaringBitmap> postings, String key, int id) {
+    if (key != null) {
+      postings.computeIfAbsent(key, k -> new RoaringBitmap()).add(id);
+    }
+  }
+
+  private static void removePosting(Map<String, RoaringBitmap> postings, String key, int id) {
+    if (key == null) {
+      return;
+    }
+    RoaringBitmap ids = postings.get(key);
+    if (ids != null) {
+      ids.remove(id);
+      if (ids.isEmpty()) {
+        postings.remove(key);
+      }
+    }
+  }
+
+  private RoaringBitmap prefixMatch(String prefix) {
+    return FastAggregation.or(
+        tokens.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values().iterator());
+  }
+
+  // Внутри одного фильтра значения объединяются через OR, как в BookSpecifications
+  private static RoaringBitmap facet(
+      Map<String, RoaringBitmap> postings, Collection<String> values) {
+    if (values == null || values.isEmpty()) {
+      return null;
+    }
+    List<RoaringBitmap> matches = new ArrayList<>(values.size());
+    for (String value : values) {
+      RoaringBitmap ids = postings.get(value);
+      if (ids != null) {
+        matches.add(ids);
+      }
+    }
+    return FastAggregation.or(matches.iterator());
+  }
+
+  // Результат всегда копия: bitmap из индекса не изменяются при поиске
+  private static RoaringBitmap intersect(RoaringBitmap current, RoaringBitmap next) {
+    if (next == null) {
+      return current;
+    }
+    if (current == null) {
+      return next.clone();
+    }
+    current.and(next);
+    return current;
+  }
+
+  // Триграммы как в pg_trgm: каждое слово дополняется двумя пробелами слева и одним справа
+  private static Set<String> trigrams(String text) {
+    Set<String> trigrams = new HashSet<>();
+    for (String word : tokenize(text)) {
+      String padded = "  " + word + " ";
+      for (int i = 0; i + 3 <= padded.length(); i++) {
+        trigrams.add(padded.substring(i, i + 3));
+      }
+    }
+    return trigrams;
+  }
+
+  // Формула similarity() из pg_trgm, в float4, чтобы равные значения совпадали с БД
+  private static float similarity(Set<String> query, Set<String> title) {
+    if (query.isEmpty() || title.isEmpty()) {
+      return 0f;
+    }
+    int common = 0;
+    for (String trigram : query) {
+      if (title.contains(trigram)) {
+        common++;
+      }
+    }
+    return (float) common / (float) (query.size() + title.size() - common);
+  }
+
+  // Автор в запросе задаётся как "Имя Фамилия", так же как в BookSpecifications.hasAuthors
+  private static List<String> authorKeys(List<String> requestAuthors) {
+    if (requestAuthors == null) {
+      return null;
+    }
+    return requestAuthors.stream()
+        .map(
+            author -> {
+              String[] parts = author.split(" ", 2);
+              return authorKey(parts[0], parts.length > 1 ? parts[1] : "");
+            })
+        .collect(Collectors.toList());
+  }
+
+  private static String authorKey(String name, String surname) {
+    return name + " " + surname;
+  }
+
+  private static List<String> tokenize(String text) {
+    if (text == null || text.isBlank()) {
+      return Collections.emptyList();
+    }
+    return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase()))
+        .filter(token -> !token.isEmpty())
+        .distinct()
+        .collect(Collectors.toList());
+  }
+
+  private static final class IndexedBook {
+    private final Long id;
+    private final int bit;
+    private final String title;
+    private final List<String> authorNames;
+    private final Set<String> titleTrigrams;
+    private final Set<String> tokens;
+    private final Set<String> authors;
+    private final String genre;
+    private final String theme;
+    private final String publisher;
+
+    private IndexedBook(
+        Long id,
+        String title,
+        List<String> authorNames,
+        Set<String> tokens,
+        Set<String> authors,
+        String genre,
+        String theme,
+        String publisher) {
+      this.id = id;
+      this.bit = Math.toIntExact(id);
+      this.title = title;
+      this.authorNames = authorNames;
+      this.titleTrigrams = title != null ? trigrams(title) : Collections.emptySet();
+      this.tokens = tokens;
+      this.authors = authors;
+      this.genre = genre;
+      this.theme = theme;
+      this.publisher = publisher;
+    }
+
+    private static IndexedBook of(Book book) {
+      String title = book.getTitle() != null ? book.getTitle().toLowerCase() : null;
+      Set<String> tokens = new HashSet<>(tokenize(title));
+      List<String> authorNames = new ArrayList<>();
+      Set<String> authors = new HashSet<>();
+      if (book.getAuthors() != null) {
+        for (Author author : book.getAuthors()) {
+          authors.add(authorKey(author.getName(), author.getSurname()));
+          authorNames.add(authorKey(author.getName(), author.getSurname()).toLowerCase());
+          tokens.addAll(tokenize(author.getName()));
+          tokens.addAll(tokenize(author.getSurname()));
+        }
+      }
+      return new IndexedBook(
+          book.getId(),
+          title,
+          authorNames,
+          tokens,
+          authors,
+          book.getGenre() != null ? book.getGenre().getName() : null,
+          book.getTheme() != null ? book.getTheme().getName() : null,
+          book.getPublisher() != null ? book.getPublisher().getName() : null);
+    }
+
+    // Как LIKE '%text%' по lower(title) и lower(name || ' ' || surname) в matchesText
+    private boolean contains(String text) {
+      if (title != null && title.contains(text)) {
+        return true;
+      }
+      for (String authorName : authorNames) {
+        if (authorName.contains(text)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package com.example.bookservice.service;
 
+import com.example.bookservice.config.CacheConfig;
 import com.example.bookservice.dto.AuthorCreateRequest;
 import com.example.bookservice.dto.mapper.AuthorMapper;
 import com.example.bookservice.repository.AuthorRepository;
@@ -8,6 +9,8 @@ import com.example.shared.model.Author;
 import java.util.List;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +20,7 @@ public class AuthorService {
   private final AuthorRepository authorRepository;
   private final AuthorMapper authorMapper;
 
+  @CacheEvict(value = CacheConfig.AUTHORS, allEntries = true)
   @Transactional
   public AuthorResponse createAuthor(AuthorCreateRequest request) {
     Author author = new Author();
@@ -26,6 +30,7 @@ public class AuthorService {
     return authorMapper.toResponse(authorRepository.save(author));
   }
 
+  @Cacheable(CacheConfig.AUTHORS)
   @Transactional(readOnly = true)
   public List<AuthorResponse> findAllAuthors() {
     return authorRepository.findAll().stream()
@@ -33,6 +38,7 @@ public class AuthorService {
         .collect(Collectors.toList());
   }
 
+  @CacheEvict(value = CacheConfig.AUTHORS, allEntries = true)
   @Transactional
   public boolean deleteAuthor(Long id) {
     Author author = authorRepository.findById(id).orElse(null);
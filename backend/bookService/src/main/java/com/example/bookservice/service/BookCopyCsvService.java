@@ -1,33 +1,79 @@
 package com.example.bookservice.service;
 
-import com.example.bookservice.model.BookCopy;
+import com.example.bookservice.dto.BookCopyImportResponse;
 import com.example.bookservice.repository.BookRepository;
-import com.example.bookservice.repository.CopiesRepository;
 import com.example.bookservice.repository.LibraryRepository;
-import com.example.shared.exception.ResourceNotFoundException;
-import com.example.shared.model.Book;
-import com.example.shared.model.Library;
+import com.example.bookservice.search.CatalogSearchIndex;
+import com.example.shared.exception.BusinessLogicException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class BookCopyCsvService {
 
+  // Вся порция - один INSERT из массивов. Номера, уже занятые в БД, пропускаются без отката
+  // порции; RETURNING отдаёт только вставленные строки, по ним считаются счётчики книг
+  private static final String INSERT_BOOK_COPIES_SQL =
+      "INSERT INTO book_copy (book_id, library_id, inventory_number, available)"
+          + " SELECT * FROM unnest(?::bigint[], ?::bigint[], ?::varchar[], ?::boolean[])"
+          + " ON CONFLICT (inventory_number) DO NOTHING"
+          + " RETURNING inventory_number";
+
+  // Тот же сдвиг, что и BookRepository.adjustCopyCounters: книга и книга в библиотеке (V14)
+  private static final String ADJUST_COPY_COUNTERS_SQL =
+      "WITH delta (book_id, library_id, total, available) AS"
+          + " (VALUES (?::bigint, ?::bigint, ?::int, ?::int)),"
+          + " per_library AS ("
+          + " INSERT INTO book_library_copies (book_id, library_id, total_copies, available_copies)"
+          + " SELECT book_id, library_id, total, available FROM delta"
+          + " ON CONFLICT (book_id, library_id) DO UPDATE"
+          + " SET total_copies = book_library_copies.total_copies + EXCLUDED.total_copies,"
+          + " available_copies = book_library_copies.available_copies + EXCLUDED.available_copies)"
+          + " UPDATE book b SET total_copies = b.total_copies + d.total,"
+          + " available_copies = b.available_copies + d.available"
+          + " FROM delta d WHERE b.id = d.book_id";
+
+  private static final int MAX_REPORTED_ERRORS = 100;
+
   private final BookRepository bookRepository;
   private final LibraryRepository libraryRepository;
-  private final CopiesRepository bookCopyRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final CatalogSearchIndex catalogSearchIndex;
+
+  @Value("${book-copy-import.chunk-size:1000}")
+  private int chunkSize;
+
+  // Файл читается потоково, каждая порция вставляется batch-ом и коммитится отдельно
+  public BookCopyImportResponse importBookCopiesFromCsv(InputStream csvInputStream)
+      throws IOException {
+    BookCopyImportResponse summary = new BookCopyImportResponse();
+    // Результаты поиска переиспользуются между порциями; null - ISBN не найден
+    Map<String, Long> bookIdsByIsbn = new HashMap<>();
+    Map<Long, Boolean> libraryExists = new HashMap<>();
 
-  @Transactional
-  public void importBookCopiesFromCsv(InputStream csvInputStream) throws IOException {
     try (Reader reader = new InputStreamReader(csvInputStream);
         CSVParser csvParser =
             new CSVParser(
@@ -36,31 +82,210 @@ public class BookCopyCsvService {
                     .withHeader("inventory_number", "available", "isbn", "libraryId")
                     .withSkipHeaderRecord(true))) {
 
+      List<CSVRecord> chunk = new ArrayList<>(chunkSize);
       for (CSVRecord record : csvParser) {
-        String inventoryNumber = record.get("inventory_number");
-        Boolean available = Boolean.parseBoolean(record.get("available"));
-        String isbn = record.get("isbn");
-        Long libraryId = Long.parseLong(record.get("libraryId"));
-
-        Book book = bookRepository.findBookByISBN(isbn);
-        if (book == null) {
-          throw new ResourceNotFoundException("Book not found for ISBN: " + isbn);
+        chunk.add(record);
+        if (chunk.size() >= chunkSize) {
+          importChunk(chunk, bookIdsByIsbn, libraryExists, summary);
+          chunk.clear();
+        }
+      }
+      if (!chunk.isEmpty()) {
+        importChunk(chunk, bookIdsByIsbn, libraryExists, summary);
+      }
+    }
+
+    catalogSearchIndex.refreshAvailability();
+    log.info(
+        "Book copy import finished: processed={}, imported={}, failed={}",
+        summary.getProcessed(),
+        summary.getImported(),
+        summary.getFailed());
+    return summary;
+  }
+
+  private void importChunk(
+      List<CSVRecord> records,
+      Map<String, Long> bookIdsByIsbn,
+      Map<Long, Boolean> libraryExists,
+      BookCopyImportResponse summary) {
+    List<ImportRow> rows = new ArrayList<>(records.size());
+    for (CSVRecord record : records) {
+      try {
+        rows.add(
+            new ImportRow(
+                record.getRecordNumber(),
+                record.get("inventory_number"),
+                Boolean.parseBoolean(record.get("available")),
+                record.get("isbn"),
+                Long.parseLong(record.get("libraryId"))));
+      } catch (IllegalArgumentException e) {
+        addError(summary, record.getRecordNumber(), "Invalid record: " + e.getMessage());
+      }
+    }
+
+    resolveBooks(rows, bookIdsByIsbn);
+    resolveLibraries(rows, libraryExists);
+
+    List<ImportRow> candidates = new ArrayList<>(rows.size());
+    Set<String> chunkInventoryNumbers = new HashSet<>();
+    for (ImportRow row : rows) {
+      if (bookIdsByIsbn.get(row.isbn) == null) {
+        addError(summary, row.recordNumber, "Book not found for ISBN: " + row.isbn);
+      } else if (!libraryExists.get(row.libraryId)) {
+        addError(summary, row.recordNumber, "Library not found for ID: " + row.libraryId);
+      } else if (!chunkInventoryNumbers.add(row.inventoryNumber)) {
+        addError(
+            summary,
+            row.recordNumber,
+            "Duplicate inventory number in file: " + row.inventoryNumber);
+      } else {
+        candidates.add(row);
+      }
+    }
+
+    if (!candidates.isEmpty()) {
+      Set<String> inserted;
+      try {
+        inserted = transactionTemplate.execute(status -> insertCopies(candidates, bookIdsByIsbn));
+      } catch (DataAccessException e) {
+        throw new BusinessLogicException(
+            "Import aborted after "
+                + summary.getImported()
+                + " imported copies at record "
+                + records.get(0).getRecordNumber()
+                + ": "
+                + e.getMostSpecificCause().getMessage(),
+            e);
+      }
+      for (ImportRow row : candidates) {
+        if (!inserted.contains(row.inventoryNumber)) {
+          addError(
+              summary, row.recordNumber, "Inventory number already exists: " + row.inventoryNumber);
         }
+      }
+      summary.setImported(summary.getImported() + inserted.size());
+    }
+    summary.setProcessed(summary.getProcessed() + records.size());
+
+    log.info(
+        "Book copy import progress: processed={}, imported={}, failed={}",
+        summary.getProcessed(),
+        summary.getImported(),
+        summary.getFailed());
+  }
 
-        Library library =
-            libraryRepository
-                .findById(libraryId)
-                .orElseThrow(
-                    () -> new ResourceNotFoundException("Library not found for ID: " + libraryId));
+  // Возвращает номера вставленных экземпляров; внутри порции номера уже уникальны
+  private Set<String> insertCopies(List<ImportRow> rows, Map<String, Long> bookIdsByIsbn) {
+    Long[] bookIds = new Long[rows.size()];
+    Long[] libraryIds = new Long[rows.size()];
+    String[] inventoryNumbers = new String[rows.size()];
+    Boolean[] available = new Boolean[rows.size()];
+    for (int i = 0; i < rows.size(); i++) {
+      ImportRow row = rows.get(i);
+      bookIds[i] = bookIdsByIsbn.get(row.isbn);
+      libraryIds[i] = row.libraryId;
+      inventoryNumbers[i] = row.inventoryNumber;
+      available[i] = row.available;
+    }
+    Set<String> inserted =
+        new HashSet<>(
+            jdbcTemplate.query(
+                connection -> {
+                  PreparedStatement statement = connection.prepareStatement(INSERT_BOOK_COPIES_SQL);
+                  statement.setArray(1, connection.createArrayOf("bigint", bookIds));
+                  statement.setArray(2, connection.createArrayOf("bigint", libraryIds));
+                  statement.setArray(3, connection.createArrayOf("varchar", inventoryNumbers));
+                  statement.setArray(4, connection.createArrayOf("boolean", available));
+                  return statement;
+                },
+                (resultSet, rowNum) -> resultSet.getString(1)));
+
+    // Сдвиги счётчиков по книге и библиотеке: [total, available]; порядок по id против
+    // взаимных блокировок
+    Map<Long, Map<Long, int[]>> counterDeltas = new TreeMap<>();
+    for (int i = 0; i < rows.size(); i++) {
+      if (!inserted.contains(inventoryNumbers[i])) {
+        continue;
+      }
+      int[] delta =
+          counterDeltas
+              .computeIfAbsent(bookIds[i], key -> new TreeMap<>())
+              .computeIfAbsent(libraryIds[i], key -> new int[2]);
+      delta[0]++;
+      if (Boolean.TRUE.equals(available[i])) {
+        delta[1]++;
+      }
+    }
+    List<Object[]> counterArgs = new ArrayList<>();
+    counterDeltas.forEach(
+        (bookId, byLibrary) ->
+            byLibrary.forEach(
+                (libraryId, delta) ->
+                    counterArgs.add(new Object[] {bookId, libraryId, delta[0], delta[1]})));
+    jdbcTemplate.batchUpdate(ADJUST_COPY_COUNTERS_SQL, counterArgs);
+    return inserted;
+  }
 
-        BookCopy bookCopy = new BookCopy();
-        bookCopy.setInventoryNumber(inventoryNumber);
-        bookCopy.setAvailable(available);
-        bookCopy.setBook(book);
-        bookCopy.setLibrary(library);
+  private void resolveBooks(List<ImportRow> rows, Map<String, Long> bookIdsByIsbn) {
+    Set<String> unknownIsbns = new HashSet<>();
+    for (ImportRow row : rows) {
+      if (!bookIdsByIsbn.containsKey(row.isbn)) {
+        unknownIsbns.add(row.isbn);
+      }
+    }
+    if (unknownIsbns.isEmpty()) {
+      return;
+    }
+
+    for (Object[] isbnAndId : bookRepository.findIdsByIsbnIn(unknownIsbns)) {
+      bookIdsByIsbn.put((String) isbnAndId[0], (Long) isbnAndId[1]);
+    }
+    for (String isbn : unknownIsbns) {
+      bookIdsByIsbn.putIfAbsent(isbn, null);
+    }
+  }
 
-        bookCopyRepository.save(bookCopy);
+  private void resolveLibraries(List<ImportRow> rows, Map<Long, Boolean> libraryExists) {
+    Set<Long> unknownIds = new HashSet<>();
+    for (ImportRow row : rows) {
+      if (!libraryExists.containsKey(row.libraryId)) {
+        unknownIds.add(row.libraryId);
       }
     }
+    if (unknownIds.isEmpty()) {
+      return;
+    }
+
+    for (Long id : unknownIds) {
+      libraryExists.put(id, false);
+    }
+    for (Long id : libraryRepository.findExistingIds(unknownIds)) {
+      libraryExists.put(id, true);
+    }
+  }
+
+  private void addError(BookCopyImportResponse summary, long recordNumber, String message) {
+    summary.setFailed(summary.getFailed() + 1);
+    if (summary.getErrors().size() < MAX_REPORTED_ERRORS) {
+      summary.getErrors().add("Record " + recordNumber + ": " + message);
+    }
+  }
+
+  private static final class ImportRow {
+    private final long recordNumber;
+    private final String inventoryNumber;
+    private final Boolean available;
+    private final String isbn;
+    private final Long libraryId;
+
+    private ImportRow(
+        long recordNumber, String inventoryNumber, Boolean available, String isbn, Long libraryId) {
+      this.recordNumber = recordNumber;
+      this.inventoryNumber = inventoryNumber;
+      this.available = available;
+      this.isbn = isbn;
+      this.libraryId = libraryId;
+    }
   }
 }
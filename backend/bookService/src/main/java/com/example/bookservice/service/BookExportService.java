@@ -0,0 +1,139 @@
+package com.example.bookservice.service;
+
+import com.example.bookservice.dto.BookCopyResponse;
+import com.example.bookservice.dto.BookResponse;
+import com.example.bookservice.dto.mapper.BookMapper;
+import com.example.bookservice.repository.BookRepository;
+import com.example.shared.model.Book;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookExportService {
+
+  private static final int WINDOW_SIZE = 500;
+
+  private static final String[] CSV_HEADER = {
+    "id",
+    "title",
+    "yearPublished",
+    "isbn",
+    "genre",
+    "theme",
+    "publisher",
+    "rating",
+    "authors",
+    "copies"
+  };
+
+  private final BookRepository bookRepository;
+  private final BookMapper bookMapper;
+  private final ObjectMapper objectMapper;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  // Книги читаются серверным курсором и пишутся сразу в ответ окнами по WINDOW_SIZE:
+  // память не зависит от размера каталога
+  @Transactional(readOnly = true)
+  public void exportBooks(boolean csv, OutputStream output) throws IOException {
+    long started = System.currentTimeMillis();
+    long exported = 0;
+
+    Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+    CSVPrinter printer =
+        csv ? new CSVPrinter(writer, CSVFormat.DEFAULT.withHeader(CSV_HEADER)) : null;
+
+    List<Book> window = new ArrayList<>(WINDOW_SIZE);
+    try (Stream<Book> books = bookRepository.streamAllOrderById()) {
+      Iterator<Book> iterator = books.iterator();
+      while (iterator.hasNext()) {
+        window.add(iterator.next());
+        if (window.size() >= WINDOW_SIZE) {
+          exported += writeWindow(window, writer, printer);
+          window.clear();
+        }
+      }
+      if (!window.isEmpty()) {
+        exported += writeWindow(window, writer, printer);
+      }
+    }
+    writer.flush();
+
+    log.info(
+        "Catalog export finished: {} books in {} ms",
+        exported,
+        System.currentTimeMillis() - started);
+  }
+
+  private int writeWindow(List<Book> window, Writer writer, CSVPrinter printer)
+      throws IOException {
+    List<Long> ids = window.stream().map(Book::getId).collect(Collectors.toList());
+    // fetch join инициализирует авторов уже загруженных книг одним запросом,
+    // экземпляры всего окна toResponses загружает тоже одним запросом
+    bookRepository.findAllWithDetailsByIdIn(ids);
+    List<BookResponse> responses = bookMapper.toResponses(window);
+
+    for (BookResponse response : responses) {
+      if (printer != null) {
+        printer.printRecord(toCsvRecord(response));
+      } else {
+        writer.write(objectMapper.writeValueAsString(response));
+        writer.write('\n');
+      }
+    }
+    writer.flush();
+
+    // Окно записано - очищаем контекст, иначе все книги каталога останутся в памяти
+    entityManager.clear();
+    return window.size();
+  }
+
+  private static List<Object> toCsvRecord(BookResponse response) {
+    List<Object> record = new ArrayList<>(CSV_HEADER.length);
+    record.add(response.getId());
+    record.add(response.getTitle());
+    record.add(response.getYearPublished());
+    record.add(response.getISBN());
+    record.add(response.getGenre() != null ? response.getGenre().getName() : null);
+    record.add(response.getTheme() != null ? response.getTheme().getName() : null);
+    record.add(response.getPublisher() != null ? response.getPublisher().getName() : null);
+    record.add(response.getRating());
+    // Авторы и экземпляры - списки через ";"
+    record.add(
+        response.getAuthors() == null
+            ? null
+            : response.getAuthors().stream()
+                .map(author -> author.getName() + " " + author.getSurname())
+                .collect(Collectors.joining(";")));
+    record.add(
+        response.getCopies().stream()
+            .map(BookExportService::toCsvCopy)
+            .collect(Collectors.joining(";")));
+    return record;
+  }
+
+  // inventory_number@library_id:available
+  private static String toCsvCopy(BookCopyResponse copy) {
+    return copy.getInventoryNumber() + "@" + copy.getLibraryId() + ":" + copy.getAvailable();
+  }
+}
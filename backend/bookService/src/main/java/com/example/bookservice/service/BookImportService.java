@@ -0,0 +1,365 @@
+package com.example.bookservice.service;
+
+import com.example.bookservice.dto.BookCreateRequest;
+import com.example.bookservice.dto.BookImportChunkResponse;
+import com.example.bookservice.repository.AuthorRepository;
+import com.example.bookservice.repository.BookRepository;
+import com.example.bookservice.repository.GenreRepository;
+import com.example.bookservice.repository.PublisherRepository;
+import com.example.bookservice.repository.ThemeRepository;
+import com.example.bookservice.search.CatalogSearchIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookImportService {
+
+  // id берутся из последовательности заранее, чтобы сразу вставить связи author_books
+  private static final String ALLOCATE_BOOK_IDS_SQL =
+      "SELECT nextval(pg_get_serial_sequence('book', 'id')) FROM generate_series(1, ?)";
+
+  private static final String INSERT_BOOK_SQL =
+      "INSERT INTO book (id, title, year_published, isbn, genre_id, theme_id, publisher_id)"
+          + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+  private static final String INSERT_AUTHOR_BOOK_SQL =
+      "INSERT INTO author_books (book_id, author_id) VALUES (?, ?)";
+
+  private static final String[] CSV_HEADER = {
+    "title", "yearPublished", "isbn", "genreId", "themeId", "publisherId", "authorIds"
+  };
+
+  private static final int MAX_REPORTED_ERRORS = 100;
+
+  private final BookRepository bookRepository;
+  private final GenreRepository genreRepository;
+  private final ThemeRepository themeRepository;
+  private final PublisherRepository publisherRepository;
+  private final AuthorRepository authorRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final CatalogSearchIndex catalogSearchIndex;
+  private final ObjectMapper objectMapper;
+  private final Validator validator;
+
+  @Value("${book-import.chunk-size:1000}")
+  private int chunkSize;
+
+  // Вход читается потоково (NDJSON или CSV), результат каждой порции сразу пишется в output
+  public void importBooks(InputStream input, boolean csv, OutputStream output)
+      throws IOException {
+    ImportSession session = new ImportSession(output);
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+      if (csv) {
+        CSVParser parser =
+            new CSVParser(
+                reader, CSVFormat.DEFAULT.withHeader(CSV_HEADER).withSkipHeaderRecord(true));
+        for (CSVRecord record : parser) {
+          session.accept(fromCsv(record));
+        }
+      } else {
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+          lineNumber++;
+          if (!line.isBlank()) {
+            session.accept(fromJson(lineNumber, line));
+          }
+        }
+      }
+    }
+    session.finish();
+  }
+
+  private ImportRow fromJson(long lineNumber, String line) {
+    try {
+      return validate(lineNumber, objectMapper.readValue(line, BookCreateRequest.class));
+    } catch (JsonProcessingException e) {
+      return ImportRow.failed(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+    }
+  }
+
+  private ImportRow fromCsv(CSVRecord record) {
+    try {
+      BookCreateRequest request = new BookCreateRequest();
+      request.setTitle(record.get("title"));
+      request.setYearPublished(parseInteger(record.get("yearPublished")));
+      request.setIsbn(record.get("isbn"));
+      request.setGenreId(parseLong(record.get("genreId")));
+      request.setThemeId(parseLong(record.get("themeId")));
+      request.setPublisherId(parseLong(record.get("publisherId")));
+      // Авторы в одной колонке через ";"
+      List<Long> authorIds = new ArrayList<>();
+      for (String authorId : record.get("authorIds").split(";")) {
+        if (!authorId.isBlank()) {
+          authorIds.add(Long.parseLong(authorId.trim()));
+        }
+      }
+      request.setAuthorIds(authorIds);
+      return validate(record.getRecordNumber(), request);
+    } catch (IllegalArgumentException e) {
+      return ImportRow.failed(record.getRecordNumber(), "Invalid record: " + e.getMessage());
+    }
+  }
+
+  private ImportRow validate(long recordNumber, BookCreateRequest request) {
+    Set<ConstraintViolation<BookCreateRequest>> violations = validator.validate(request);
+    if (!violations.isEmpty()) {
+      String message =
+          violations.stream()
+              .map(ConstraintViolation::getMessage)
+              .collect(Collectors.joining(", "));
+      return ImportRow.failed(recordNumber, message);
+    }
+    return new ImportRow(recordNumber, request, null);
+  }
+
+  private static Integer parseInteger(String value) {
+    return value == null || value.isBlank() ? null : Integer.parseInt(value.trim());
+  }
+
+  private static Long parseLong(String value) {
+    return value == null || value.isBlank() ? null : Long.parseLong(value.trim());
+  }
+
+  // Неизвестные id проверяются одним запросом, результат переиспользуется между порциями
+  private static <T> void resolveIds(
+      Set<Long> ids,
+      Map<Long, Boolean> known,
+      JpaRepository<T, Long> repository,
+      Function<T, Long> idOf) {
+    Set<Long> unknownIds = new HashSet<>();
+    for (Long id : ids) {
+      if (id != null && !known.containsKey(id)) {
+        unknownIds.add(id);
+      }
+    }
+    if (unknownIds.isEmpty()) {
+      return;
+    }
+    for (Long id : unknownIds) {
+      known.put(id, false);
+    }
+    for (T entity : repository.findAllById(unknownIds)) {
+      known.put(idOf.apply(entity), true);
+    }
+  }
+
+  private static boolean isMissing(Long id, Map<Long, Boolean> known) {
+    return id != null && !known.get(id);
+  }
+
+  private static void addError(BookImportChunkResponse result, long recordNumber, String message) {
+    result.setFailed(result.getFailed() + 1);
+    if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+      result.getErrors().add("Record " + recordNumber + ": " + message);
+    }
+  }
+
+  private final class ImportSession {
+    private final OutputStream output;
+    private final List<ImportRow> chunk = new ArrayList<>();
+    // ISBN, уже импортированные в этом файле
+    private final Set<String> importedIsbns = new HashSet<>();
+    private final Map<Long, Boolean> genres = new HashMap<>();
+    private final Map<Long, Boolean> themes = new HashMap<>();
+    private final Map<Long, Boolean> publishers = new HashMap<>();
+    private final Map<Long, Boolean> authors = new HashMap<>();
+    private int chunkNumber;
+    private long processed;
+    private long imported;
+
+    private ImportSession(OutputStream output) {
+      this.output = output;
+    }
+
+    private void accept(ImportRow row) throws IOException {
+      chunk.add(row);
+      if (chunk.size() >= chunkSize) {
+        flushChunk();
+      }
+    }
+
+    private void finish() throws IOException {
+      if (!chunk.isEmpty()) {
+        flushChunk();
+      }
+      log.info("Book import finished: processed={}, imported={}", processed, imported);
+    }
+
+    private void flushChunk() throws IOException {
+      BookImportChunkResponse result = importChunk();
+      processed += result.getProcessed();
+      imported += result.getImported();
+      chunk.clear();
+
+      output.write(objectMapper.writeValueAsBytes(result));
+      output.write('\n');
+      output.flush();
+    }
+
+    private BookImportChunkResponse importChunk() {
+      BookImportChunkResponse result = new BookImportChunkResponse();
+      result.setChunk(++chunkNumber);
+      result.setProcessed(chunk.size());
+
+      // Дубликаты ISBN внутри файла, затем одним запросом по idx_book_isbn
+      Set<String> chunkIsbns = new HashSet<>();
+      List<ImportRow> candidates = new ArrayList<>();
+      for (ImportRow row : chunk) {
+        if (row.error != null) {
+          addError(result, row.recordNumber, row.error);
+        } else if (importedIsbns.contains(row.request.getIsbn())
+            || !chunkIsbns.add(row.request.getIsbn())) {
+          result.setDuplicates(result.getDuplicates() + 1);
+        } else {
+          candidates.add(row);
+        }
+      }
+      Set<String> existingIsbns = new HashSet<>();
+      if (!chunkIsbns.isEmpty()) {
+        for (Object[] isbnAndId : bookRepository.findIdsByIsbnIn(chunkIsbns)) {
+          existingIsbns.add((String) isbnAndId[0]);
+        }
+      }
+
+      Set<Long> genreIds = new HashSet<>();
+      Set<Long> themeIds = new HashSet<>();
+      Set<Long> publisherIds = new HashSet<>();
+      Set<Long> authorIds = new HashSet<>();
+      for (ImportRow row : candidates) {
+        genreIds.add(row.request.getGenreId());
+        themeIds.add(row.request.getThemeId());
+        publisherIds.add(row.request.getPublisherId());
+        if (row.request.getAuthorIds() != null) {
+          authorIds.addAll(row.request.getAuthorIds());
+        }
+      }
+      resolveIds(genreIds, genres, genreRepository, genre -> genre.getId());
+      resolveIds(themeIds, themes, themeRepository, theme -> theme.getId());
+      resolveIds(publisherIds, publishers, publisherRepository, publisher -> publisher.getId());
+      resolveIds(authorIds, authors, authorRepository, author -> author.getId());
+
+      List<ImportRow> rows = new ArrayList<>();
+      for (ImportRow row : candidates) {
+        BookCreateRequest request = row.request;
+        List<Long> missingAuthors =
+            request.getAuthorIds() == null
+                ? List.of()
+                : request.getAuthorIds().stream()
+                    .filter(id -> isMissing(id, authors))
+                    .collect(Collectors.toList());
+        if (existingIsbns.contains(request.getIsbn())) {
+          result.setDuplicates(result.getDuplicates() + 1);
+        } else if (isMissing(request.getGenreId(), genres)) {
+          addError(result, row.recordNumber, "Genre not found with id: " + request.getGenreId());
+        } else if (isMissing(request.getThemeId(), themes)) {
+          addError(result, row.recordNumber, "Theme not found with id: " + request.getThemeId());
+        } else if (isMissing(request.getPublisherId(), publishers)) {
+          addError(
+              result, row.recordNumber, "Publisher not found with id: " + request.getPublisherId());
+        } else if (!missingAuthors.isEmpty()) {
+          addError(result, row.recordNumber, "Authors not found with ids: " + missingAuthors);
+        } else {
+          rows.add(row);
+        }
+      }
+      if (rows.isEmpty()) {
+        return result;
+      }
+
+      try {
+        List<Long> bookIds = transactionTemplate.execute(status -> insertBooks(rows));
+        for (ImportRow row : rows) {
+          importedIsbns.add(row.request.getIsbn());
+        }
+        result.setImported(rows.size());
+        catalogSearchIndex.indexBooks(bookIds);
+      } catch (DataAccessException e) {
+        // Порция откатывается целиком, импорт продолжается со следующей
+        for (ImportRow row : rows) {
+          addError(result, row.recordNumber, e.getMostSpecificCause().getMessage());
+        }
+      }
+      return result;
+    }
+
+    private List<Long> insertBooks(List<ImportRow> rows) {
+      List<Long> bookIds =
+          jdbcTemplate.queryForList(ALLOCATE_BOOK_IDS_SQL, Long.class, rows.size());
+      List<Object[]> bookArgs = new ArrayList<>(rows.size());
+      List<Object[]> authorArgs = new ArrayList<>();
+      for (int i = 0; i < rows.size(); i++) {
+        Long bookId = bookIds.get(i);
+        BookCreateRequest request = rows.get(i).request;
+        bookArgs.add(
+            new Object[] {
+              bookId,
+              request.getTitle(),
+              request.getYearPublished(),
+              request.getIsbn(),
+              request.getGenreId(),
+              request.getThemeId(),
+              request.getPublisherId()
+            });
+        if (request.getAuthorIds() != null) {
+          for (Long authorId : new LinkedHashSet<>(request.getAuthorIds())) {
+            authorArgs.add(new Object[] {bookId, authorId});
+          }
+        }
+      }
+      jdbcTemplate.batchUpdate(INSERT_BOOK_SQL, bookArgs);
+      if (!authorArgs.isEmpty()) {
+        jdbcTemplate.batchUpdate(INSERT_AUTHOR_BOOK_SQL, authorArgs);
+      }
+      return bookIds;
+    }
+  }
+
+  private static final class ImportRow {
+    private final long recordNumber;
+    private final BookCreateRequest request;
+    private final String error;
+
+    private ImportRow(long recordNumber, BookCreateRequest request, String error) {
+      this.recordNumber = recordNumber;
+      this.request = request;
+      this.error = error;
+    }
+
+    private static ImportRow failed(long recordNumber, String error) {
+      return new ImportRow(recordNumber, null, error);
+    }
+  }
+}
@@ -4,23 +4,32 @@ import com.example.bookservice.dto.*;
 import com.example.bookservice.dto.mapper.BookMapper;
 import com.example.bookservice.repository.AuthorRepository;
 import com.example.bookservice.repository.BookRepository;
-import com.example.bookservice.repository.GenreRepository;
-import com.example.bookservice.repository.PublisherRepository;
-import com.example.bookservice.repository.ThemeRepository;
+import com.example.bookservice.search.CatalogSearchIndex;
 import com.example.bookservice.specification.BookSpecifications;
+import com.example.shared.dto.CursorPageResponse;
 import com.example.shared.exception.ConflictException;
 import com.example.shared.exception.ResourceNotFoundException;
+import com.example.shared.exception.ValidationException;
 import com.example.shared.model.Author;
 import com.example.shared.model.Book;
-import com.example.shared.model.Genre;
-import com.example.shared.model.Publisher;
-import com.example.shared.model.Theme;
+import com.example.shared.util.CursorUtil;
+import io.micrometer.core.annotation.Timed;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -30,19 +39,146 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class BookService {
 
+  private static final int MAX_SCROLL_LIMIT = 100;
+  private static final String SORT_ID = "id";
+  private static final String SORT_TITLE = "title";
+
   private final BookRepository bookRepository;
   private final AuthorRepository authorRepository;
-  private final GenreRepository genreRepository;
-  private final ThemeRepository themeRepository;
-  private final PublisherRepository publisherRepository;
+  private final GenreService genreService;
+  private final ThemeService themeService;
+  private final PublisherService publisherService;
   private final BookMapper bookMapper;
+  private final CatalogSearchIndex catalogSearchIndex;
 
+  @Timed(value = "book.search", histogram = true)
   @Transactional(readOnly = true)
   public Page<BookResponse> findBooks(BookSearchRequest request, Pageable pageable) {
+    // Без явной сортировки запрос может обслужить индекс в памяти
+    if (pageable.getSort().isUnsorted()) {
+      Optional<List<Long>> indexedIds = catalogSearchIndex.search(request);
+      if (indexedIds.isPresent()) {
+        return findBooksByIds(indexedIds.get(), pageable);
+      }
+    }
+
+    Page<Book> books = bookRepository.findAll(buildSpecification(request), pageable);
+    return new PageImpl<>(
+        bookMapper.toResponses(books.getContent()), books.getPageable(), books.getTotalElements());
+  }
+
+  // Keyset-пагинация по (ключ сортировки, id): без OFFSET и без COUNT
+  @Transactional(readOnly = true)
+  public CursorPageResponse<BookResponse> scrollBooks(
+      BookSearchRequest request, String sort, String cursor, int limit) {
+    if (limit < 1 || limit > MAX_SCROLL_LIMIT) {
+      throw new ValidationException("Limit must be between 1 and " + MAX_SCROLL_LIMIT);
+    }
+    if (!SORT_ID.equals(sort) && !SORT_TITLE.equals(sort)) {
+      throw new ValidationException("Unsupported sort: " + sort);
+    }
+
+    Long afterId = null;
+    String afterTitle = null;
+    if (cursor != null && !cursor.isEmpty()) {
+      String[] parts = CursorUtil.decode(cursor, 3);
+      if (!sort.equals(parts[0])) {
+        throw new ValidationException("Cursor does not match sort: " + sort);
+      }
+      afterId = CursorUtil.decodeId(parts[1]);
+      afterTitle = parts[2];
+    }
+
+    // При текстовом запросе индекс упорядочивает id по релевантности, а не по возрастанию:
+    // для sort=id сортируем копию, иначе бинарный поиск продолжения даёт пропуски и повторы
+    if (SORT_ID.equals(sort)) {
+      Optional<List<Long>> indexedIds = catalogSearchIndex.search(request);
+      if (indexedIds.isPresent()) {
+        List<Long> ids = new ArrayList<>(indexedIds.get());
+        Collections.sort(ids);
+        int from = 0;
+        if (afterId != null) {
+          int position = Collections.binarySearch(ids, afterId);
+          from = position >= 0 ? position + 1 : -position - 1;
+        }
+        List<Long> windowIds = ids.subList(from, Math.min(from + limit + 1, ids.size()));
+        return toCursorPage(findAllByIdsInOrder(windowIds), sort, limit);
+      }
+    }
+
+    Specification<Book> spec = buildSpecification(request);
+    if (afterId != null) {
+      spec =
+          spec.and(
+              SORT_TITLE.equals(sort)
+                  ? BookSpecifications.titleAfter(afterTitle, afterId)
+                  : BookSpecifications.idAfter(afterId));
+    }
+    Sort order = SORT_TITLE.equals(sort) ? Sort.by(SORT_TITLE, SORT_ID) : Sort.by(SORT_ID);
+    // limit + 1 строк: лишняя строка показывает, есть ли следующая страница
+    List<Book> books =
+        bookRepository.findBy(spec, query -> query.sortBy(order).limit(limit + 1).all());
+    return toCursorPage(books, sort, limit);
+  }
+
+  private CursorPageResponse<BookResponse> toCursorPage(List<Book> books, String sort, int limit) {
+    String nextCursor = null;
+    if (books.size() > limit) {
+      books = books.subList(0, limit);
+      Book last = books.get(limit - 1);
+      nextCursor =
+          CursorUtil.encode(
+              sort, String.valueOf(last.getId()), SORT_TITLE.equals(sort) ? last.getTitle() : "");
+    }
+    return new CursorPageResponse<>(bookMapper.toResponses(books), nextCursor);
+  }
+
+  // Страница результатов и счётчики по фасетам за один вызов
+  @Transactional(readOnly = true)
+  public BookFacetsResponse findBooksWithFacets(BookSearchRequest request, Pageable pageable) {
+    BookFacetsResponse response = new BookFacetsResponse();
+
+    Optional<List<Long>> indexedIds = catalogSearchIndex.search(request);
+    if (indexedIds.isPresent()) {
+      response.setBooks(
+          pageable.getSort().isUnsorted()
+              ? findBooksByIds(indexedIds.get(), pageable)
+              : findBooks(request, pageable));
+      catalogSearchIndex.countFacets(indexedIds.get(), response);
+      return response;
+    }
+
+    Specification<Book> spec = buildSpecification(request);
+    Page<Book> books = bookRepository.findAll(spec, pageable);
+    response.setBooks(
+        new PageImpl<>(
+            bookMapper.toResponses(books.getContent()),
+            books.getPageable(),
+            books.getTotalElements()));
+
+    for (Object[] row : bookRepository.countByGenreThemePublisher(spec)) {
+      Long count = (Long) row[3];
+      addFacetCount(response.getGenres(), (String) row[0], count);
+      addFacetCount(response.getThemes(), (String) row[1], count);
+      addFacetCount(response.getPublishers(), (String) row[2], count);
+    }
+    for (Object[] row : bookRepository.countByAuthor(spec)) {
+      addFacetCount(response.getAuthors(), row[0] + " " + row[1], (Long) row[2]);
+    }
+    return response;
+  }
+
+  private static void addFacetCount(Map<String, Long> facet, String value, Long count) {
+    if (value != null) {
+      facet.merge(value, count, Long::sum);
+    }
+  }
+
+  private Specification<Book> buildSpecification(BookSearchRequest request) {
     Specification<Book> spec = Specification.where(null);
 
     if (request.getName() != null && !request.getName().trim().isEmpty()) {
-      spec = spec.and(BookSpecifications.hasTitleLike(request.getName()));
+      spec = spec.and(BookSpecifications.matchesText(request.getName()));
     }
     if (request.getAuthors() != null) {
       spec = spec.and(BookSpecifications.hasAuthors(request.getAuthors()));
@@ -78,8 +214,45 @@ public class BookService {
           spec.and(
               BookSpecifications.hasRatingBetween(request.getRatingMIN(), request.getRatingMAX()));
     }
+    return spec;
+  }
+
+  private Page<BookResponse> findBooksByIds(List<Long> ids, Pageable pageable) {
+    List<Long> pageIds = ids;
+    if (pageable.isPaged()) {
+      int from = (int) Math.min(pageable.getOffset(), ids.size());
+      pageIds = ids.subList(from, Math.min(from + pageable.getPageSize(), ids.size()));
+    }
+    if (pageIds.isEmpty()) {
+      return new PageImpl<>(new ArrayList<>(), pageable, ids.size());
+    }
+    return new PageImpl<>(
+        bookMapper.toResponses(findAllByIdsInOrder(pageIds)), pageable, ids.size());
+  }
+
+  private List<Book> findAllByIdsInOrder(List<Long> ids) {
+    if (ids.isEmpty()) {
+      return new ArrayList<>();
+    }
+    Map<Long, Book> booksById =
+        bookRepository.findAllWithDetailsByIdIn(ids).stream()
+            .collect(Collectors.toMap(Book::getId, Function.identity()));
+    return ids.stream().map(booksById::get).filter(Objects::nonNull).collect(Collectors.toList());
+  }
 
-    return bookRepository.findAll(spec, pageable).map(bookMapper::toResponse);
+  // Все авторы одним запросом; отсутствующие id перечисляются в одной ошибке
+  private List<Author> resolveAuthors(List<Long> authorIds) {
+    Set<Long> uniqueIds = new LinkedHashSet<>(authorIds);
+    Map<Long, Author> authorsById =
+        authorRepository.findAllById(uniqueIds).stream()
+            .collect(Collectors.toMap(Author::getId, Function.identity()));
+
+    List<Long> missingIds =
+        uniqueIds.stream().filter(id -> !authorsById.containsKey(id)).collect(Collectors.toList());
+    if (!missingIds.isEmpty()) {
+      throw new ResourceNotFoundException("Authors not found with ids: " + missingIds);
+    }
+    return uniqueIds.stream().map(authorsById::get).collect(Collectors.toList());
   }
 
   @Transactional(readOnly = true)
@@ -100,19 +273,11 @@ public class BookService {
       }
 
       Book book = toEntity(request);
+      // Все связи уже загружены в toEntity, перечитывать книгу после вставки не нужно
       Book savedBook = bookRepository.save(book);
-      // Принудительно синхронизируем с БД
-      bookRepository.flush();
-      // Очищаем контекст персистентности и загружаем заново, чтобы получить все связи
-      Long savedBookId = savedBook.getId();
-      savedBook = bookRepository.findById(savedBookId)
-          .orElseThrow(() -> new ResourceNotFoundException("Book not found after creation"));
-      // Убеждаемся, что связи загружены (особенно ManyToMany с авторами)
-      if (savedBook.getAuthors() != null) {
-        savedBook.getAuthors().size(); // Инициализируем ленивую коллекцию
-      }
-      BookResponse response = bookMapper.toResponse(savedBook);
-      return response;
+      catalogSearchIndex.onBookSaved(savedBook);
+      // У только что созданной книги экземпляров нет
+      return bookMapper.toResponse(savedBook, Collections.emptyList());
     } catch (Exception e) {
       log.error("Error creating book: {}", e.getMessage(), e);
       throw e;
@@ -127,7 +292,9 @@ public class BookService {
             .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
 
     updateEntity(oldBook, request);
-    return bookMapper.toResponse(bookRepository.save(oldBook));
+    Book savedBook = bookRepository.save(oldBook);
+    catalogSearchIndex.onBookSaved(savedBook);
+    return bookMapper.toResponse(savedBook);
   }
 
   private Book toEntity(BookCreateRequest request) {
@@ -135,51 +302,27 @@ public class BookService {
     book.setTitle(request.getTitle());
     book.setYearPublished(request.getYearPublished());
     book.setISBN(request.getIsbn());
+    // Значения по умолчанию колонок book: ответ строится без перечитывания строки после вставки
+    book.setRatingSum(0L);
+    book.setRatingCount(0);
+    book.setAverageRating(0f);
+    book.setTotalCopies(0);
+    book.setAvailableCopies(0);
 
     if (request.getGenreId() != null) {
-      Genre genre =
-          genreRepository
-              .findById(request.getGenreId())
-              .orElseThrow(
-                  () ->
-                      new ResourceNotFoundException(
-                          "Genre not found with id: " + request.getGenreId()));
-      book.setGenre(genre);
+      book.setGenre(genreService.getGenre(request.getGenreId()));
     }
 
     if (request.getThemeId() != null) {
-      Theme theme =
-          themeRepository
-              .findById(request.getThemeId())
-              .orElseThrow(
-                  () ->
-                      new ResourceNotFoundException(
-                          "Theme not found with id: " + request.getThemeId()));
-      book.setTheme(theme);
+      book.setTheme(themeService.getTheme(request.getThemeId()));
     }
 
     if (request.getPublisherId() != null) {
-      Publisher publisher =
-          publisherRepository
-              .findById(request.getPublisherId())
-              .orElseThrow(
-                  () ->
-                      new ResourceNotFoundException(
-                          "Publisher not found with id: " + request.getPublisherId()));
-      book.setPublisher(publisher);
+      book.setPublisher(publisherService.getPublisher(request.getPublisherId()));
     }
 
     if (request.getAuthorIds() != null && !request.getAuthorIds().isEmpty()) {
-      List<Author> authors = new ArrayList<>();
-      for (Long authorId : request.getAuthorIds()) {
-        Author author =
-            authorRepository
-                .findById(authorId)
-                .orElseThrow(
-                    () -> new ResourceNotFoundException("Author not found with id: " + authorId));
-        authors.add(author);
-      }
-      book.setAuthors(authors);
+      book.setAuthors(resolveAuthors(request.getAuthorIds()));
     }
 
     return book;
@@ -191,49 +334,19 @@ public class BookService {
     book.setISBN(request.getIsbn());
 
     if (request.getGenreId() != null) {
-      Genre genre =
-          genreRepository
-              .findById(request.getGenreId())
-              .orElseThrow(
-                  () ->
-                      new ResourceNotFoundException(
-                          "Genre not found with id: " + request.getGenreId()));
-      book.setGenre(genre);
+      book.setGenre(genreService.getGenre(request.getGenreId()));
     }
 
     if (request.getThemeId() != null) {
-      Theme theme =
-          themeRepository
-              .findById(request.getThemeId())
-              .orElseThrow(
-                  () ->
-                      new ResourceNotFoundException(
-                          "Theme not found with id: " + request.getThemeId()));
-      book.setTheme(theme);
+      book.setTheme(themeService.getTheme(request.getThemeId()));
     }
 
     if (request.getPublisherId() != null) {
-      Publisher publisher =
-          publisherRepository
-              .findById(request.getPublisherId())
-              .orElseThrow(
-                  () ->
-                      new ResourceNotFoundException(
-                          "Publisher not found with id: " + request.getPublisherId()));
-      book.setPublisher(publisher);
+      book.setPublisher(publisherService.getPublisher(request.getPublisherId()));
     }
 
     if (request.getAuthorIds() != null) {
-      List<Author> authors = new ArrayList<>();
-      for (Long authorId : request.getAuthorIds()) {
-        Author author =
-            authorRepository
-                .findById(authorId)
-                .orElseThrow(
-                    () -> new ResourceNotFoundException("Author not found with id: " + authorId));
-        authors.add(author);
-      }
-      book.setAuthors(authors);
+      book.setAuthors(resolveAuthors(request.getAuthorIds()));
     }
   }
 
@@ -246,6 +359,7 @@ public class BookService {
     }
 
     bookRepository.deleteById(id);
+    catalogSearchIndex.onBookDeleted(id);
 
     return true;
   }
@@ -8,10 +8,17 @@ import com.example.bookservice.model.BookCopy;
 import com.example.bookservice.repository.BookRepository;
 import com.example.bookservice.repository.CopiesRepository;
 import com.example.bookservice.repository.LibraryRepository;
+import com.example.bookservice.search.CatalogSearchIndex;
+import com.example.shared.dto.CursorPageResponse;
 import com.example.shared.exception.ConflictException;
 import com.example.shared.exception.ResourceNotFoundException;
+import com.example.shared.exception.ValidationException;
+import com.example.shared.util.CursorUtil;
+import java.util.List;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,10 +26,13 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 @RequiredArgsConstructor
 public class CopiesService {
+  private static final int MAX_SCROLL_LIMIT = 100;
+
   private final CopiesRepository copiesRepository;
   private final BookRepository bookRepository;
   private final LibraryRepository libraryRepository;
   private final BookCopyMapper bookCopyMapper;
+  private final CatalogSearchIndex catalogSearchIndex;
 
   @Transactional(readOnly = true)
   public Page<BookCopyResponse> findBooks(Long bookId, Long libraryId, Pageable pageable) {
@@ -41,6 +51,43 @@ public class CopiesService {
     return copiesPage.map(bookCopyMapper::toResponse);
   }
 
+  // Keyset-пагинация по id: глубокие страницы не замедляются, COUNT не выполняется
+  @Transactional(readOnly = true)
+  public CursorPageResponse<BookCopyResponse> scrollCopies(
+      Long bookId, Long libraryId, String cursor, int limit) {
+    if (limit < 1 || limit > MAX_SCROLL_LIMIT) {
+      throw new ValidationException("Limit must be between 1 and " + MAX_SCROLL_LIMIT);
+    }
+    Long afterId = 0L;
+    if (cursor != null && !cursor.isEmpty()) {
+      afterId = CursorUtil.decodeId(CursorUtil.decode(cursor, 1)[0]);
+    }
+
+    // limit + 1 строк: лишняя строка показывает, есть ли следующая страница
+    Pageable window = PageRequest.of(0, limit + 1);
+    List<BookCopy> copies;
+    if (bookId != null && libraryId != null) {
+      copies =
+          copiesRepository.findByBookIdAndLibraryIdAndIdGreaterThanOrderByIdAsc(
+              bookId, libraryId, afterId, window);
+    } else if (bookId != null) {
+      copies = copiesRepository.findByBookIdAndIdGreaterThanOrderByIdAsc(bookId, afterId, window);
+    } else if (libraryId != null) {
+      copies =
+          copiesRepository.findByLibraryIdAndIdGreaterThanOrderByIdAsc(libraryId, afterId, window);
+    } else {
+      copies = copiesRepository.findByIdGreaterThanOrderByIdAsc(afterId, window);
+    }
+
+    String nextCursor = null;
+    if (copies.size() > limit) {
+      copies = copies.subList(0, limit);
+      nextCursor = CursorUtil.encode(String.valueOf(copies.get(limit - 1).getId()));
+    }
+    return new CursorPageResponse<>(
+        copies.stream().map(bookCopyMapper::toResponse).collect(Collectors.toList()), nextCursor);
+  }
+
   @Transactional
   public boolean deleteBook(Long id) {
     BookCopy book = copiesRepository.findById(id).orElse(null);
@@ -51,6 +98,12 @@ public class CopiesService {
 
     try {
       copiesRepository.deleteById(id);
+      bookRepository.adjustCopyCounters(
+          book.getBook().getId(),
+          book.getLibrary().getId(),
+          -1,
+          Boolean.TRUE.equals(book.getAvailable()) ? -1 : 0);
+      catalogSearchIndex.onCopiesChanged(book.getBook().getId());
       return true;
     } catch (org.springframework.dao.DataIntegrityViolationException e) {
       throw new com.example.shared.exception.ConflictException(
@@ -81,7 +134,14 @@ public class CopiesService {
                     new ResourceNotFoundException(
                         "Library not found with id: " + request.getLibraryId())));
     newBook.setInventoryNumber(request.getInventoryNumber());
-    return bookCopyMapper.toResponse(copiesRepository.save(newBook));
+    BookCopy savedCopy = copiesRepository.save(newBook);
+    bookRepository.adjustCopyCounters(
+        savedCopy.getBook().getId(),
+        savedCopy.getLibrary().getId(),
+        1,
+        Boolean.TRUE.equals(savedCopy.getAvailable()) ? 1 : 0);
+    catalogSearchIndex.onCopiesChanged(savedCopy.getBook().getId());
+    return bookCopyMapper.toResponse(savedCopy);
   }
 
   @Transactional
@@ -90,6 +150,9 @@ public class CopiesService {
         copiesRepository
             .findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Book copy not found with id: " + id));
+    Long previousBookId = oldBook.getBook().getId();
+    Long previousLibraryId = oldBook.getLibrary().getId();
+    boolean wasAvailable = Boolean.TRUE.equals(oldBook.getAvailable());
 
     oldBook.setAvailable(request.getAvailable());
     oldBook.setBook(
@@ -107,6 +170,18 @@ public class CopiesService {
                     new ResourceNotFoundException(
                         "Library not found with id: " + request.getLibraryId())));
     oldBook.setInventoryNumber(request.getInventoryNumber());
-    return bookCopyMapper.toResponse(copiesRepository.save(oldBook));
+    BookCopy savedCopy = copiesRepository.save(oldBook);
+    boolean isAvailable = Boolean.TRUE.equals(savedCopy.getAvailable());
+    Long bookId = savedCopy.getBook().getId();
+    Long libraryId = savedCopy.getLibrary().getId();
+    if (!previousBookId.equals(bookId) || !previousLibraryId.equals(libraryId)) {
+      bookRepository.adjustCopyCounters(
+          previousBookId, previousLibraryId, -1, wasAvailable ? -1 : 0);
+      bookRepository.adjustCopyCounters(bookId, libraryId, 1, isAvailable ? 1 : 0);
+    } else if (wasAvailable != isAvailable) {
+      bookRepository.adjustCopyCounters(bookId, libraryId, 0, isAvailable ? 1 : -1);
+    }
+    catalogSearchIndex.onCopiesChanged(previousBookId, savedCopy.getBook().getId());
+    return bookCopyMapper.toResponse(savedCopy);
   }
 }
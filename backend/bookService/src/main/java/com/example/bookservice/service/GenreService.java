@@ -1,13 +1,18 @@
 package com.example.bookservice.service;
 
+import com.example.bookservice.config.CacheConfig;
 import com.example.bookservice.dto.GenreCreateRequest;
 import com.example.bookservice.dto.mapper.GenreMapper;
 import com.example.bookservice.repository.GenreRepository;
 import com.example.shared.dto.GenreResponse;
+import com.example.shared.exception.ResourceNotFoundException;
 import com.example.shared.model.Genre;
 import java.util.List;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +22,7 @@ public class GenreService {
   private final GenreRepository genreRepository;
   private final GenreMapper genreMapper;
 
+  @Cacheable(CacheConfig.GENRES)
   @Transactional(readOnly = true)
   public List<GenreResponse> findAllGenres() {
     return genreRepository.findAll().stream()
@@ -24,6 +30,16 @@ public class GenreService {
         .collect(Collectors.toList());
   }
 
+  // Справочник для BookService.toEntity/updateEntity без запроса к БД на каждую книгу
+  @Cacheable(CacheConfig.GENRE_BY_ID)
+  @Transactional(readOnly = true)
+  public Genre getGenre(Long id) {
+    return genreRepository
+        .findById(id)
+        .orElseThrow(() -> new ResourceNotFoundException("Genre not found with id: " + id));
+  }
+
+  @CacheEvict(value = CacheConfig.GENRES, allEntries = true)
   @Transactional
   public GenreResponse createGenre(GenreCreateRequest request) {
     Genre genre = new Genre();
@@ -32,6 +48,11 @@ public class GenreService {
     return genreMapper.toResponse(genreRepository.save(genre));
   }
 
+  @Caching(
+      evict = {
+        @CacheEvict(value = CacheConfig.GENRES, allEntries = true),
+        @CacheEvict(value = CacheConfig.GENRE_BY_ID, key = "#id")
+      })
   @Transactional
   public boolean deleteGenre(Long id) {
     Genre genre = genreRepository.findById(id).orElse(null);
@@ -1,5 +1,6 @@
 package com.example.bookservice.service;
 
+import com.example.bookservice.config.CacheConfig;
 import com.example.bookservice.dto.LibraryCreateRequest;
 import com.example.bookservice.dto.LibraryResponse;
 import com.example.bookservice.dto.mapper.LibraryMapper;
@@ -10,6 +11,8 @@ import com.example.shared.model.Library;
 import java.util.List;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -28,6 +31,7 @@ public class LibraryService {
     return copies.map(LibraryResponse::fromBookCopy);
   }
 
+  @Cacheable(CacheConfig.LIBRARIES)
   @Transactional(readOnly = true)
   public List<LibraryResponse> getLibrary() {
     return libraryRepository.findAll().stream()
@@ -35,6 +39,7 @@ public class LibraryService {
         .collect(Collectors.toList());
   }
 
+  @CacheEvict(value = CacheConfig.LIBRARIES, allEntries = true)
   @Transactional
   public LibraryResponse create(LibraryCreateRequest request) {
     Library library = new Library();
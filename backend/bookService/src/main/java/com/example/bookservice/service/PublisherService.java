@@ -1,13 +1,18 @@
 package com.example.bookservice.service;
 
+import com.example.bookservice.config.CacheConfig;
 import com.example.bookservice.dto.PublisherCreateRequest;
 import com.example.bookservice.dto.mapper.PublisherMapper;
 import com.example.bookservice.repository.PublisherRepository;
 import com.example.shared.dto.PublisherResponse;
+import com.example.shared.exception.ResourceNotFoundException;
 import com.example.shared.model.Publisher;
 import java.util.List;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +22,7 @@ public class PublisherService {
   private final PublisherRepository publisherRepository;
   private final PublisherMapper publisherMapper;
 
+  @Cacheable(CacheConfig.PUBLISHERS)
   @Transactional(readOnly = true)
   public List<PublisherResponse> findAllPublishers() {
     return publisherRepository.findAll().stream()
@@ -24,6 +30,16 @@ public class PublisherService {
         .collect(Collectors.toList());
   }
 
+  // Справочник для BookService.toEntity/updateEntity без запроса к БД на каждую книгу
+  @Cacheable(CacheConfig.PUBLISHER_BY_ID)
+  @Transactional(readOnly = true)
+  public Publisher getPublisher(Long id) {
+    return publisherRepository
+        .findById(id)
+        .orElseThrow(() -> new ResourceNotFoundException("Publisher not found with id: " + id));
+  }
+
+  @CacheEvict(value = CacheConfig.PUBLISHERS, allEntries = true)
   @Transactional
   public PublisherResponse createPublisher(PublisherCreateRequest request) {
     Publisher publisher = new Publisher();
@@ -33,6 +49,11 @@ public class PublisherService {
     return publisherMapper.toResponse(publisherRepository.save(publisher));
   }
 
+  @Caching(
+      evict = {
+        @CacheEvict(value = CacheConfig.PUBLISHERS, allEntries = true),
+        @CacheEvict(value = CacheConfig.PUBLISHER_BY_ID, key = "#id")
+      })
   @Transactional
   public boolean deletePublisher(Long id) {
     Publisher publisher = publisherRepository.findById(id).orElse(null);
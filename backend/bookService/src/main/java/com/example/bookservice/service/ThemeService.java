@@ -1,13 +1,18 @@
 package com.example.bookservice.service;
 
+import com.example.bookservice.config.CacheConfig;
 import com.example.bookservice.dto.ThemeCreateRequest;
 import com.example.bookservice.dto.mapper.ThemeMapper;
 import com.example.bookservice.repository.ThemeRepository;
 import com.example.shared.dto.ThemeResponse;
+import com.example.shared.exception.ResourceNotFoundException;
 import com.example.shared.model.Theme;
 import java.util.List;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +22,7 @@ public class ThemeService {
   private final ThemeRepository themeRepository;
   private final ThemeMapper themeMapper;
 
+  @Cacheable(CacheConfig.THEMES)
   @Transactional(readOnly = true)
   public List<ThemeResponse> findAllThemes() {
     return themeRepository.findAll().stream()
@@ -24,6 +30,16 @@ public class ThemeService {
         .collect(Collectors.toList());
   }
 
+  // Справочник для BookService.toEntity/updateEntity без запроса к БД на каждую книгу
+  @Cacheable(CacheConfig.THEME_BY_ID)
+  @Transactional(readOnly = true)
+  public Theme getTheme(Long id) {
+    return themeRepository
+        .findById(id)
+        .orElseThrow(() -> new ResourceNotFoundException("Theme not found with id: " + id));
+  }
+
+  @CacheEvict(value = CacheConfig.THEMES, allEntries = true)
   @Transactional
   public ThemeResponse createTheme(ThemeCreateRequest request) {
     Theme theme = new Theme();
@@ -32,6 +48,11 @@ public class ThemeService {
     return themeMapper.toResponse(themeRepository.save(theme));
   }
 
+  @Caching(
+      evict = {
+        @CacheEvict(value = CacheConfig.THEMES, allEntries = true),
+        @CacheEvict(value = CacheConfig.THEME_BY_ID, key = "#id")
+      })
   @Transactional
   public boolean deleteTheme(Long id) {
     Theme theme = themeRepository.findById(id).orElse(null);
@@ -1,6 +1,5 @@
 package com.example.bookservice.specification;
 
-import com.example.bookservice.model.BookCopy;
 import com.example.shared.model.Author;
 import com.example.shared.model.Book;
 import com.example.shared.model.Genre;
@@ -9,6 +8,7 @@ import com.example.shared.model.Theme;
 import jakarta.persistence.criteria.*;
 import java.util.List;
 import java.util.stream.Collectors;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
 import org.springframework.data.jpa.domain.Specification;
 
 public class BookSpecifications {
@@ -21,6 +21,58 @@ public class BookSpecifications {
     };
   }
 
+  // Подстрока в названии или в "имя фамилия" автора. id совпавших книг собираются
+  // некоррелированным UNION двух подзапросов: каждый обслуживается своим trigram-индексом (V9),
+  // тогда как OR с коррелированным EXISTS приводил к полному сканированию book
+  public static Specification<Book> matchesText(String text) {
+    return (root, query, cb) -> {
+      String normalized = normalizeText(text);
+      if (normalized == null) {
+        return cb.conjunction();
+      }
+      String pattern = "%" + escapeLike(normalized) + "%";
+
+      Subquery<Long> titleMatch = query.subquery(Long.class);
+      Root<Book> titleBook = titleMatch.from(Book.class);
+      titleMatch
+          .select(titleBook.get("id"))
+          .where(cb.like(cb.lower(titleBook.get("title")), pattern, '\\'));
+
+      // Выборка идёт от author, id книги берётся из author_books
+      Subquery<Long> authorMatch = query.subquery(Long.class);
+      Root<Author> author = authorMatch.from(Author.class);
+      Join<Author, Book> authorBook = author.join("books");
+      // Разделитель - литерал, а не параметр: иначе выражение не совпадёт с индексным
+      // lower(name || ' ' || surname)
+      Expression<String> fullName =
+          cb.lower(
+              cb.concat(cb.concat(author.get("name"), cb.literal(" ")), author.get("surname")));
+      authorMatch.select(authorBook.get("id")).where(cb.like(fullName, pattern, '\\'));
+
+      // Для count-запроса сортировка не нужна
+      if (!Long.class.equals(query.getResultType())) {
+        query.orderBy(
+            cb.desc(
+                cb.function(
+                    "similarity",
+                    Double.class,
+                    cb.lower(root.get("title")),
+                    cb.literal(normalized))),
+            cb.asc(root.get("id")));
+      }
+
+      return root.get("id").in(((HibernateCriteriaBuilder) cb).union(titleMatch, authorMatch));
+    };
+  }
+
+  // Та же нормализация в CatalogSearchIndex: индекс и БД должны находить одни и те же книги
+  public static String normalizeText(String text) {
+    if (text == null || text.trim().isEmpty()) {
+      return null;
+    }
+    return text.trim().toLowerCase();
+  }
+
   public static Specification<Book> hasAuthors(List<String> authors) {
     return (root, query, cb) -> {
       if (authors == null || authors.isEmpty()) {
@@ -52,10 +104,7 @@ public class BookSpecifications {
       if (minCopies == null) {
         return cb.conjunction();
       }
-      Subquery<Long> subquery = query.subquery(Long.class);
-      Root<BookCopy> bookCopyRoot = subquery.from(BookCopy.class);
-      subquery.select(cb.count(bookCopyRoot)).where(cb.equal(bookCopyRoot.get("book"), root));
-      return cb.greaterThanOrEqualTo(subquery, (long) minCopies);
+      return cb.greaterThanOrEqualTo(root.get("totalCopies"), minCopies);
     };
   }
 
@@ -64,10 +113,7 @@ public class BookSpecifications {
       if (maxCopies == null) {
         return cb.conjunction();
       }
-      Subquery<Long> subquery = query.subquery(Long.class);
-      Root<BookCopy> bookCopyRoot = subquery.from(BookCopy.class);
-      subquery.select(cb.count(bookCopyRoot)).where(cb.equal(bookCopyRoot.get("book"), root));
-      return cb.lessThanOrEqualTo(subquery, (long) maxCopies);
+      return cb.lessThanOrEqualTo(root.get("totalCopies"), maxCopies);
     };
   }
 
@@ -120,45 +166,32 @@ public class BookSpecifications {
     };
   }
 
+  // Счётчики экземпляров хранятся в book (V10), подзапросы к book_copy не нужны
   public static Specification<Book> hasAvailableCopies() {
-    return (root, query, cb) -> {
-      Subquery<Long> subquery = query.subquery(Long.class);
-      Root<BookCopy> bookCopyRoot = subquery.from(BookCopy.class);
-      subquery
-          .select(cb.literal(1L))
-          .where(
-              cb.and(
-                  cb.equal(bookCopyRoot.get("book"), root),
-                  cb.isTrue(bookCopyRoot.get("available"))));
-      return cb.exists(subquery);
-    };
+    return (root, query, cb) -> cb.greaterThan(root.get("availableCopies"), 0);
   }
 
   public static Specification<Book> hasNoAvailableCopies() {
-    return (root, query, cb) -> {
-      Subquery<Long> availableSubquery = query.subquery(Long.class);
-      Root<BookCopy> availableRoot = availableSubquery.from(BookCopy.class);
-      availableSubquery
-          .select(cb.literal(1L))
-          .where(
-              cb.and(
-                  cb.equal(availableRoot.get("book"), root),
-                  cb.isTrue(availableRoot.get("available"))));
-
-      Subquery<Long> anySubquery = query.subquery(Long.class);
-      Root<BookCopy> anyRoot = anySubquery.from(BookCopy.class);
-      anySubquery.select(cb.literal(1L)).where(cb.equal(anyRoot.get("book"), root));
-
-      return cb.and(cb.not(cb.exists(availableSubquery)), cb.exists(anySubquery));
-    };
+    return (root, query, cb) ->
+        cb.and(
+            cb.equal(root.get("availableCopies"), 0), cb.greaterThan(root.get("totalCopies"), 0));
+  }
+
+  // Keyset-пагинация: строки строго после последней строки предыдущей страницы
+  public static Specification<Book> idAfter(Long id) {
+    return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+  }
+
+  public static Specification<Book> titleAfter(String title, Long id) {
+    return (root, query, cb) ->
+        cb.or(
+            cb.greaterThan(root.get("title"), title),
+            cb.and(cb.equal(root.get("title"), title), cb.greaterThan(root.get("id"), id)));
   }
 
   public static Specification<Book> hasRatingBetween(Float minRating, Float maxRating) {
     return (root, query, cb) -> {
-      Expression<Float> avgRating =
-          cb.function("get_average_book_rating", Float.class, root.get("id"));
-
-      return cb.between(avgRating, minRating, maxRating);
+      return cb.between(root.get("averageRating"), minRating, maxRating);
     };
   }
 
@@ -180,6 +213,10 @@ public class BookSpecifications {
     };
   }
 
+  private static String escapeLike(String value) {
+    return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+
   public static Specification<Book> sortByField(String field, boolean ascending) {
     return (root, query, cb) -> {
       if (field == null || field.trim().isEmpty()) {
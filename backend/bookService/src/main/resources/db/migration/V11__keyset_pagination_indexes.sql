@@ -0,0 +1,10 @@
+-- Миграция V11: Индексы для keyset-пагинации (/scroll в API v2)
+-- Продолжение страницы - range scan по (ключ сортировки, id) вместо OFFSET
+
+CREATE INDEX IF NOT EXISTS idx_book_title_id ON book(title, id);
+
+CREATE INDEX IF NOT EXISTS idx_book_copy_book_id_id ON book_copy(book_id, id);
+CREATE INDEX IF NOT EXISTS idx_book_copy_library_id_id ON book_copy(library_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_book_transaction_pending_id
+    ON book_transaction(id) WHERE status = 'PENDING';
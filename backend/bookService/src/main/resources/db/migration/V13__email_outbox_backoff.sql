@@ -0,0 +1,8 @@
+-- Миграция V13: Повторы публикации писем из outbox с паузой
+-- Строка выбирается, когда наступил next_attempt_at; при захвате он сдвигается на время отправки,
+-- при неудаче - на экспоненциальную паузу. Строки с исчерпанными попытками остаются в таблице
+
+ALTER TABLE email_outbox
+    ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_next_attempt_at ON email_outbox(next_attempt_at);
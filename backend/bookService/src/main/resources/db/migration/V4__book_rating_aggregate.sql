@@ -0,0 +1,44 @@
+-- Миграция V4: Материализованный агрегат рейтинга книги
+-- Вместо вызова get_average_book_rating() на каждую строку храним sum/count/avg в book
+
+-- ============================================
+-- 1. КОЛОНКИ АГРЕГАТА
+-- ============================================
+
+ALTER TABLE book
+    ADD COLUMN IF NOT EXISTS rating_sum BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS rating_count INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS average_rating REAL NOT NULL DEFAULT 0;
+
+-- ============================================
+-- 2. ЗАПОЛНЕНИЕ ПО СУЩЕСТВУЮЩИМ ОЦЕНКАМ
+-- ============================================
+
+UPDATE book b
+SET rating_sum = s.rating_sum,
+    rating_count = s.rating_count,
+    average_rating = s.rating_sum::REAL / s.rating_count
+FROM (
+    SELECT r.book_id, SUM(r.rating_value) AS rating_sum, COUNT(*) AS rating_count
+    FROM rating r
+    GROUP BY r.book_id
+) s
+WHERE b.id = s.book_id;
+
+-- ============================================
+-- 3. ИНДЕКС ДЛЯ ФИЛЬТРА ПО РЕЙТИНГУ
+-- ============================================
+
+CREATE INDEX IF NOT EXISTS idx_book_average_rating ON book(average_rating);
+
+-- ============================================
+-- 4. ФУНКЦИЯ get_average_book_rating
+-- ============================================
+
+-- Оставляем функцию для совместимости, но читаем готовое значение вместо AVG по rating
+CREATE OR REPLACE FUNCTION get_average_book_rating(p_book_id BIGINT)
+RETURNS FLOAT AS $$
+    SELECT COALESCE((SELECT b.average_rating FROM book b WHERE b.id = p_book_id), 0.0)::FLOAT;
+$$ LANGUAGE sql STABLE;
+
+COMMENT ON FUNCTION get_average_book_rating(BIGINT) IS 'Возвращает материализованный средний рейтинг книги (book.average_rating)';
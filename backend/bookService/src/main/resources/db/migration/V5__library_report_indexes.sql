@@ -0,0 +1,8 @@
+-- Миграция V5: Индексы для отчета по доступности копий в библиотеке
+
+-- Копии библиотеки с группировкой по книге
+CREATE INDEX IF NOT EXISTS idx_book_copy_library_book ON book_copy(library_id, book_id);
+
+-- Поиск выдач копии до заданной даты
+CREATE INDEX IF NOT EXISTS idx_book_transaction_copy_borrow_date
+    ON book_transaction(book_copy_id, borrow_date);
@@ -0,0 +1,12 @@
+-- Миграция V7: Transactional outbox для email-уведомлений
+-- Письмо записывается в той же транзакции, что и изменение брони, и публикуется в Kafka фоном
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    message_key VARCHAR,
+    payload TEXT NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON TABLE email_outbox IS 'Неотправленные сообщения для топика email_requests; строка удаляется после подтверждения брокером';
@@ -0,0 +1,19 @@
+-- Миграция V9: Trigram-индексы для поиска по каталогу
+-- Запросы LIKE '%...%' по названию книги и имени автора используют GIN-индексы вместо полного сканирования
+
+-- ============================================
+-- 1. РАСШИРЕНИЕ
+-- ============================================
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- ============================================
+-- 2. ИНДЕКСЫ
+-- ============================================
+
+-- Выражения совпадают с BookSpecifications.matchesText
+CREATE INDEX IF NOT EXISTS idx_book_title_trgm
+    ON book USING GIN (lower(title) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_author_full_name_trgm
+    ON author USING GIN (lower(name || ' ' || surname) gin_trgm_ops);
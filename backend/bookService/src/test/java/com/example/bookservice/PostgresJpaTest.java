@@ -0,0 +1,21 @@
+package com.example.bookservice;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+// Репозитории на настоящем PostgreSQL со схемой из миграций Flyway (pg_trgm, GIN-индексы).
+// Контейнер запускается один раз на все наследники: закешированный Spring-контекст
+// продолжает смотреть на тот же порт
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public abstract class PostgresJpaTest {
+
+  @ServiceConnection
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  static {
+    POSTGRES.start();
+  }
+}
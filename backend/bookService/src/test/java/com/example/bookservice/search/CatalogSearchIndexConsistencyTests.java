@@ -0,0 +1,108 @@
+package com.example.bookservice.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.bookservice.PostgresJpaTest;
+import com.example.bookservice.dto.BookSearchRequest;
+import com.example.bookservice.repository.BookRepository;
+import com.example.bookservice.specification.BookSpecifications;
+import com.example.shared.model.Book;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Индекс в памяти и matchesText в БД должны находить одни и те же книги в одном порядке
+class CatalogSearchIndexConsistencyTests extends PostgresJpaTest {
+
+  private static final String SEED_SQL =
+      """
+          INSERT INTO book (title, isbn) VALUES
+              ('War and Peace', 'C-1'),
+              ('Warlock', 'C-2'),
+              ('The Art of War', 'C-3'),
+              ('Анна Каренина', 'C-4'),
+              ('Мир и война', 'C-5'),
+              ('100% Cotton', 'C-6'),
+              ('a_b testing', 'C-7'),
+              ('Peace-keeping', 'C-8'),
+              ('Frankenstein', 'C-9'),
+              ('Мария', 'C-10');
+
+          INSERT INTO author (name, surname) VALUES
+              ('Лев', 'Толстой'),
+              ('Arthur', 'Warden'),
+              ('Mary', 'Shelley');
+
+          INSERT INTO author_books (book_id, author_id)
+          SELECT b.id, a.id
+          FROM book b
+          JOIN author a ON (a.surname, b.isbn) IN (
+              ('Толстой', 'C-1'), ('Толстой', 'C-4'), ('Толстой', 'C-5'),
+              ('Warden', 'C-8'), ('Warden', 'C-10'), ('Shelley', 'C-9'));
+      """;
+
+  // Первое слово внутри слова текста, слова через границу, спецсимволы LIKE, регистр, пробелы
+  private static final List<String> QUERIES =
+      List.of(
+          "war",
+          "ar",
+          "d pea",
+          "ace-k",
+          "лев тол",
+          "ЕВ ТОЛСТ",
+          "  Мир ",
+          "ар",
+          "100%",
+          "% c",
+          "a_b",
+          "_",
+          "-",
+          "mary",
+          "y shel",
+          "war and peace",
+          "nothing like this");
+
+  @Autowired private BookRepository bookRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private CatalogSearchIndex index;
+
+  @BeforeEach
+  void seed() {
+    jdbcTemplate.execute(SEED_SQL);
+    index =
+        CatalogSearchIndexFixture.loaded(
+            bookRepository.findAllWithDetailsByIdIn(bookRepository.findAllIds()));
+  }
+
+  @Test
+  void indexAndDatabaseReturnSameBooksInSameOrder() {
+    for (String query : QUERIES) {
+      List<Long> fromDatabase =
+          bookRepository.findAll(BookSpecifications.matchesText(query)).stream()
+              .map(Book::getId)
+              .toList();
+
+      BookSearchRequest request = new BookSearchRequest();
+      request.setName(query);
+      List<Long> fromIndex = index.search(request).orElseThrow();
+
+      assertThat(fromIndex).as("query '%s'", query).containsExactlyElementsOf(fromDatabase);
+    }
+  }
+
+  @Test
+  void queryInsideWordMatchesTitlesAndAuthors() {
+    BookSearchRequest request = new BookSearchRequest();
+    request.setName("ar");
+
+    // "w-ar", "ar-t", а у C-8 и C-10 совпадает только автор "Arthur Warden"
+    assertThat(index.search(request).orElseThrow())
+        .containsExactlyInAnyOrderElementsOf(
+            jdbcTemplate.queryForList(
+                "SELECT id FROM book WHERE isbn IN ('C-1', 'C-2', 'C-3', 'C-8', 'C-10')",
+                Long.class));
+  }
+}
@@ -0,0 +1,17 @@
+package com.example.bookservice.search;
+
+import com.example.shared.model.Book;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Индекс, заполненный без БД; у всех книг считаются доступные экземпляры
+public class CatalogSearchIndexFixture {
+
+  public static CatalogSearchIndex loaded(Collection<Book> catalog) {
+    CatalogSearchIndex index = new CatalogSearchIndex(null, null, null);
+    List<Long> ids = catalog.stream().map(Book::getId).collect(Collectors.toList());
+    index.load(catalog, ids, ids);
+    return index;
+  }
+}
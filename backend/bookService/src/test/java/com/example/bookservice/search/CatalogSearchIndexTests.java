@@ -0,0 +1,69 @@
+package com.example.bookservice.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.bookservice.dto.BookSearchRequest;
+import com.example.shared.model.Book;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class CatalogSearchIndexTests {
+
+  private CatalogSearchIndex index;
+
+  // Книга 1 с доступными экземплярами, 2 - только с выданными, 3 - без экземпляров
+  @BeforeEach
+  void setUp() {
+    index = new CatalogSearchIndex(null, null, null);
+    ReflectionTestUtils.setField(index, "enabled", true);
+    index.load(
+        List.of(book(1L, "War and Peace"), book(2L, "War of the Worlds"), book(3L, "Warlock")),
+        List.of(1L, 2L),
+        List.of(1L));
+  }
+
+  @Test
+  void updatedBookKeepsAvailability() {
+    // Без активной транзакции изменения применяются сразу
+    index.onBookSaved(book(1L, "War and Peace, 2nd edition"));
+    index.onBookSaved(book(2L, "The War of the Worlds"));
+
+    assertThat(search("war", true)).containsExactly(1L);
+    assertThat(search("war", false)).containsExactly(2L);
+    assertThat(search(null, true)).containsExactly(1L);
+  }
+
+  @Test
+  void deletedBookLosesAvailability() {
+    index.onBookDeleted(1L);
+    index.onBookSaved(book(1L, "War and Peace"));
+
+    assertThat(search(null, true)).isEmpty();
+  }
+
+  // Наличие из БД видит книгу, которую этот экземпляр ещё не проиндексировал
+  @Test
+  void availabilityOfUnindexedBookIsIgnored() {
+    index.load(List.of(), List.of(1L, 2L, 99L), List.of(1L, 99L));
+
+    assertThat(search("war", true)).containsExactly(1L);
+    assertThat(search(null, true)).containsExactly(1L);
+    assertThat(search("war", false)).containsExactly(2L);
+  }
+
+  private List<Long> search(String name, Boolean available) {
+    BookSearchRequest request = new BookSearchRequest();
+    request.setName(name);
+    request.setAvailable(available);
+    return index.search(request).orElseThrow();
+  }
+
+  private static Book book(Long id, String title) {
+    Book book = new Book();
+    book.setId(id);
+    book.setTitle(title);
+    return book;
+  }
+}
@@ -0,0 +1,105 @@
+package com.example.bookservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.example.bookservice.PostgresJpaTest;
+import com.example.bookservice.dto.BookCopyImportResponse;
+import com.example.bookservice.repository.BookRepository;
+import com.example.bookservice.repository.LibraryRepository;
+import com.example.bookservice.search.CatalogSearchIndex;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class BookCopyCsvServiceTests extends PostgresJpaTest {
+
+  private static final String SEED_SQL =
+      """
+          INSERT INTO library (name, address) VALUES ('Central', 'Main st. 1');
+
+          INSERT INTO book (title, isbn, total_copies, available_copies) VALUES
+              ('First', 'CSV-1', 1, 1),
+              ('Second', 'CSV-2', 0, 0);
+
+          INSERT INTO book_copy (book_id, library_id, inventory_number, available)
+          SELECT b.id, l.id, 'INV-EXISTING', true
+          FROM book b, library l
+          WHERE b.isbn = 'CSV-1';
+
+          INSERT INTO book_library_copies (book_id, library_id, total_copies, available_copies)
+          SELECT book_id, library_id, 1, 1 FROM book_copy WHERE inventory_number = 'INV-EXISTING';
+      """;
+
+  @Autowired private BookRepository bookRepository;
+  @Autowired private LibraryRepository libraryRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private BookCopyCsvService service;
+  private Long libraryId;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate.execute(SEED_SQL);
+    libraryId = jdbcTemplate.queryForObject("SELECT id FROM library", Long.class);
+    service =
+        new BookCopyCsvService(
+            bookRepository,
+            libraryRepository,
+            jdbcTemplate,
+            new TransactionTemplate(transactionManager),
+            mock(CatalogSearchIndex.class));
+    ReflectionTestUtils.setField(service, "chunkSize", 3);
+  }
+
+  // Порции по 3 строки: повтор внутри порции, номер из БД и номер из уже закоммиченной порции
+  // пропускаются, остальные строки импортируются
+  @Test
+  void duplicateInventoryNumbersAreSkippedAndReported() throws Exception {
+    String csv =
+        String.join(
+            "\n",
+            "inventory_number,available,isbn,libraryId",
+            "INV-1,true,CSV-1," + libraryId,
+            "INV-2,false,CSV-1," + libraryId,
+            "INV-1,true,CSV-1," + libraryId,
+            "INV-EXISTING,true,CSV-1," + libraryId,
+            "INV-2,true,CSV-2," + libraryId,
+            "INV-3,true,CSV-2," + libraryId,
+            "INV-4,true,CSV-2," + libraryId);
+
+    BookCopyImportResponse summary =
+        service.importBookCopiesFromCsv(
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+    assertThat(summary.getProcessed()).isEqualTo(7);
+    assertThat(summary.getImported()).isEqualTo(4);
+    assertThat(summary.getFailed()).isEqualTo(3);
+    assertThat(summary.getErrors())
+        .map(error -> error.substring(error.indexOf(": ") + 2))
+        .containsExactly(
+            "Duplicate inventory number in file: INV-1",
+            "Inventory number already exists: INV-EXISTING",
+            "Inventory number already exists: INV-2");
+
+    assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM book_copy", Long.class))
+        .isEqualTo(5);
+    // Счётчики сдвигаются только на вставленные экземпляры
+    assertThat(counters("CSV-1")).containsExactly(3, 2);
+    assertThat(counters("CSV-2")).containsExactly(2, 2);
+  }
+
+  private Integer[] counters(String isbn) {
+    return jdbcTemplate.queryForObject(
+        "SELECT total_copies, available_copies FROM book WHERE isbn = ?",
+        (resultSet, rowNum) -> new Integer[] {resultSet.getInt(1), resultSet.getInt(2)},
+        isbn);
+  }
+}
@@ -0,0 +1,110 @@
+package com.example.bookservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.bookservice.dto.BookResponse;
+import com.example.bookservice.dto.BookSearchRequest;
+import com.example.bookservice.dto.mapper.BookMapper;
+import com.example.bookservice.repository.AuthorRepository;
+import com.example.bookservice.repository.BookRepository;
+import com.example.bookservice.search.CatalogSearchIndexFixture;
+import com.example.shared.dto.CursorPageResponse;
+import com.example.shared.model.Book;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BookServiceScrollTests {
+
+  private static final int MAX_PAGES = 100;
+
+  private final Map<Long, Book> catalog = new LinkedHashMap<>();
+  private BookService bookService;
+
+  @BeforeEach
+  void setUp() {
+    // Слово "war" целиком есть только в части названий: по триграммной близости индекс поднимет
+    // их выше остальных, и id результата перестанут идти по возрастанию
+    for (long id = 1; id <= 60; id++) {
+      String title = id % 3 == 0 ? "war and peace " + id : "warlock tales " + id;
+      catalog.put(id, book(id, title));
+    }
+    catalog.put(61L, book(61L, "unrelated " + 61));
+
+    BookRepository bookRepository = mock(BookRepository.class);
+    when(bookRepository.findAllWithDetailsByIdIn(anyCollection()))
+        .thenAnswer(
+            invocation -> {
+              Collection<Long> ids = invocation.getArgument(0);
+              return ids.stream()
+                  .map(catalog::get)
+                  .filter(Objects::nonNull)
+                  .collect(Collectors.toList());
+            });
+
+    BookMapper bookMapper = mock(BookMapper.class);
+    when(bookMapper.toResponses(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<Book> books = invocation.getArgument(0);
+              return books.stream().map(BookServiceScrollTests::toResponse).toList();
+            });
+
+    bookService =
+        new BookService(
+            bookRepository,
+            mock(AuthorRepository.class),
+            mock(GenreService.class),
+            mock(ThemeService.class),
+            mock(PublisherService.class),
+            bookMapper,
+            CatalogSearchIndexFixture.loaded(catalog.values()));
+  }
+
+  @Test
+  void scrollByIdOverIndexedTextQueryReturnsEveryMatchOnce() {
+    BookSearchRequest request = new BookSearchRequest();
+    request.setName("war");
+
+    List<Long> seen = new ArrayList<>();
+    String cursor = null;
+    for (int page = 0; page < MAX_PAGES; page++) {
+      CursorPageResponse<BookResponse> response = bookService.scrollBooks(request, "id", cursor, 7);
+      response.getItems().forEach(item -> seen.add(item.getId()));
+      cursor = response.getNextCursor();
+      if (cursor == null) {
+        break;
+      }
+    }
+
+    assertThat(cursor).as("cursor chain must end").isNull();
+    assertThat(seen).doesNotHaveDuplicates().isSorted();
+    assertThat(seen)
+        .containsExactlyElementsOf(
+            catalog.keySet().stream().filter(id -> id <= 60).collect(Collectors.toList()));
+  }
+
+  private static Book book(Long id, String title) {
+    Book book = new Book();
+    book.setId(id);
+    book.setTitle(title);
+    return book;
+  }
+
+  private static BookResponse toResponse(Book book) {
+    BookResponse response = new BookResponse();
+    response.setId(book.getId());
+    response.setTitle(book.getTitle());
+    return response;
+  }
+}
@@ -0,0 +1,175 @@
+package com.example.bookservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.example.bookservice.PostgresJpaTest;
+import com.example.bookservice.dto.BookCopyCreateRequest;
+import com.example.bookservice.dto.BookCopyUpdateRequest;
+import com.example.bookservice.dto.mapper.BookCopyMapper;
+import com.example.bookservice.repository.BookRepository;
+import com.example.bookservice.repository.CopiesRepository;
+import com.example.bookservice.repository.LibraryRepository;
+import com.example.bookservice.search.CatalogSearchIndex;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Счётчики book (V10) и book_library_copies (V14) после каждой записи в book_copy
+// совпадают с COUNT(*) по самим экземплярам
+class CopyCountersTests extends PostgresJpaTest {
+
+  private static final String SEED_SQL =
+      """
+          INSERT INTO library (name, address)
+          VALUES ('North', 'North st. 1'), ('South', 'South st. 1');
+
+          INSERT INTO book (title, isbn) VALUES ('Counted one', 'CNT-1'), ('Counted two', 'CNT-2');
+      """;
+
+  // Расхождения счётчиков с book_copy по книгам и по парам книга/библиотека
+  private static final String MISMATCHES_SQL =
+      """
+          WITH copies AS (
+              SELECT bc.book_id,
+                     bc.library_id,
+                     COUNT(*) AS total,
+                     COUNT(*) FILTER (WHERE bc.available) AS available
+              FROM book_copy bc
+              JOIN book b ON b.id = bc.book_id
+              WHERE b.isbn LIKE 'CNT-%'
+              GROUP BY bc.book_id, bc.library_id
+          ),
+          per_book AS (
+              SELECT book_id, SUM(total) AS total, SUM(available) AS available
+              FROM copies
+              GROUP BY book_id
+          ),
+          per_library AS (
+              SELECT blc.*
+              FROM book_library_copies blc
+              JOIN book b ON b.id = blc.book_id
+              WHERE b.isbn LIKE 'CNT-%'
+          )
+          SELECT 'book ' || b.isbn
+          FROM book b
+          LEFT JOIN per_book p ON p.book_id = b.id
+          WHERE b.isbn LIKE 'CNT-%'
+            AND (b.total_copies <> COALESCE(p.total, 0)
+                 OR b.available_copies <> COALESCE(p.available, 0))
+          UNION ALL
+          SELECT 'book ' || COALESCE(pl.book_id, c.book_id)
+                 || ' in library ' || COALESCE(pl.library_id, c.library_id)
+          FROM per_library pl
+          FULL JOIN copies c ON c.book_id = pl.book_id AND c.library_id = pl.library_id
+          WHERE COALESCE(pl.total_copies, 0) <> COALESCE(c.total, 0)
+             OR COALESCE(pl.available_copies, 0) <> COALESCE(c.available, 0)
+      """;
+
+  @Autowired private BookRepository bookRepository;
+  @Autowired private CopiesRepository copiesRepository;
+  @Autowired private LibraryRepository libraryRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private PlatformTransactionManager transactionManager;
+  @Autowired private TestEntityManager entityManager;
+
+  private CopiesService copiesService;
+  private BookCopyCsvService csvService;
+  private Long bookOne;
+  private Long bookTwo;
+  private Long north;
+  private Long south;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate.execute(SEED_SQL);
+    bookOne = id("SELECT id FROM book WHERE isbn = 'CNT-1'");
+    bookTwo = id("SELECT id FROM book WHERE isbn = 'CNT-2'");
+    north = id("SELECT id FROM library WHERE name = 'North'");
+    south = id("SELECT id FROM library WHERE name = 'South'");
+
+    CatalogSearchIndex catalogSearchIndex = mock(CatalogSearchIndex.class);
+    copiesService =
+        new CopiesService(
+            copiesRepository,
+            bookRepository,
+            libraryRepository,
+            new BookCopyMapper(),
+            catalogSearchIndex);
+    csvService =
+        new BookCopyCsvService(
+            bookRepository,
+            libraryRepository,
+            jdbcTemplate,
+            new TransactionTemplate(transactionManager),
+            catalogSearchIndex);
+  }
+
+  @Test
+  void countersFollowEveryCopyWrite() throws Exception {
+    Long first = copiesService.createBook(create(bookOne, north, "CNT-A", true)).getId();
+    Long second = copiesService.createBook(create(bookOne, south, "CNT-B", false)).getId();
+    Long third = copiesService.createBook(create(bookTwo, north, "CNT-C", true)).getId();
+    assertConsistent("create");
+
+    copiesService.updateCopy(first, update(bookOne, north, "CNT-A", false));
+    assertConsistent("update availability");
+    copiesService.updateCopy(second, update(bookTwo, north, "CNT-B", true));
+    assertConsistent("move to another book and library");
+    copiesService.updateCopy(third, update(bookTwo, south, "CNT-C", true));
+    assertConsistent("move to another library");
+
+    copiesService.deleteBook(first);
+    assertConsistent("delete");
+
+    String csv =
+        String.join(
+            "\n",
+            "inventory_number,available,isbn,libraryId",
+            "CNT-D,true,CNT-1," + north,
+            "CNT-E,false,CNT-1," + south,
+            "CNT-F,true,CNT-2," + south,
+            "CNT-B,true,CNT-2," + north);
+    csvService.importBookCopiesFromCsv(
+        new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    assertConsistent("csv import");
+  }
+
+  private void assertConsistent(String step) {
+    // Изменения JPA должны дойти до БД, прежде чем сравнивать через JdbcTemplate
+    entityManager.flush();
+    List<String> mismatches = jdbcTemplate.queryForList(MISMATCHES_SQL, String.class);
+    assertThat(mismatches).as(step).isEmpty();
+  }
+
+  private Long id(String sql) {
+    return jdbcTemplate.queryForObject(sql, Long.class);
+  }
+
+  private static BookCopyCreateRequest create(
+      Long bookId, Long libraryId, String inventoryNumber, boolean available) {
+    BookCopyCreateRequest request = new BookCopyCreateRequest();
+    request.setBookId(bookId);
+    request.setLibraryId(libraryId);
+    request.setInventoryNumber(inventoryNumber);
+    request.setAvailable(available);
+    return request;
+  }
+
+  private static BookCopyUpdateRequest update(
+      Long bookId, Long libraryId, String inventoryNumber, boolean available) {
+    BookCopyUpdateRequest request = new BookCopyUpdateRequest();
+    request.setBookId(bookId);
+    request.setLibraryId(libraryId);
+    request.setInventoryNumber(inventoryNumber);
+    request.setAvailable(available);
+    return request;
+  }
+}
@@ -0,0 +1,105 @@
+package com.example.bookservice.specification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.bookservice.PostgresJpaTest;
+import com.example.bookservice.repository.BookRepository;
+import com.example.shared.model.Book;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(
+    properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+            + "com.example.bookservice.specification."
+            + "BookSpecificationsExplainTests$CapturingInspector")
+class BookSpecificationsExplainTests extends PostgresJpaTest {
+
+  // 50 000 книг и 20 000 авторов с двумя авторами у каждой книги; по "zyxquark" находятся
+  // три книги по названию и две по автору
+  private static final String SEED_SQL =
+      """
+          INSERT INTO book (title, isbn)
+          SELECT 'Book ' || g, 'SEED-' || g FROM generate_series(1, 50000) AS g;
+
+          INSERT INTO author (name, surname)
+          SELECT 'Name' || g, 'Surname' || g FROM generate_series(1, 20000) AS g;
+
+          INSERT INTO author_books (book_id, author_id)
+          SELECT DISTINCT b.id, a.ids[1 + (b.id * 31 + k * 17) % array_length(a.ids, 1)]
+          FROM book b
+          CROSS JOIN generate_series(1, 2) AS k
+          CROSS JOIN (SELECT array_agg(id ORDER BY id) AS ids FROM author) AS a
+          ON CONFLICT DO NOTHING;
+
+          INSERT INTO book (title, isbn)
+          SELECT 'The Zyxquark Saga ' || g, 'RARE-' || g FROM generate_series(1, 3) AS g;
+
+          INSERT INTO author (name, surname) VALUES ('Zyxquark', 'Writer');
+
+          INSERT INTO author_books (book_id, author_id)
+          SELECT b.id, a.id
+          FROM book b, author a
+          WHERE b.isbn IN ('SEED-10', 'SEED-20') AND a.name = 'Zyxquark';
+
+          ANALYZE book;
+          ANALYZE author;
+          ANALYZE author_books;
+      """;
+
+  @Autowired private BookRepository bookRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void seed() {
+    jdbcTemplate.execute(SEED_SQL);
+    CapturingInspector.STATEMENTS.clear();
+  }
+
+  @Test
+  void textSearchIsServedByTrigramIndexes() {
+    Specification<Book> spec = BookSpecifications.matchesText("  ZyxQuark ");
+
+    assertThat(bookRepository.findAll(spec))
+        .extracting(Book::getISBN)
+        .containsExactlyInAnyOrder("RARE-1", "RARE-2", "RARE-3", "SEED-10", "SEED-20");
+    assertThat(bookRepository.count(spec)).isEqualTo(5);
+
+    List<String> searches =
+        CapturingInspector.STATEMENTS.stream().filter(sql -> sql.contains(" like ")).toList();
+    assertThat(searches).hasSize(2);
+    for (String sql : searches) {
+      String plan = explain(sql, "%zyxquark%");
+      assertThat(plan)
+          .as(plan)
+          .contains("idx_book_title_trgm")
+          .contains("idx_author_full_name_trgm")
+          .doesNotContainPattern("Seq Scan on (book|author|author_books)\\s");
+    }
+  }
+
+  // Все параметры поискового SQL - один и тот же LIKE-шаблон
+  private String explain(String sql, String pattern) {
+    Object[] args = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+    Arrays.fill(args, pattern);
+    return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args));
+  }
+
+  public static class CapturingInspector implements StatementInspector {
+    static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+      STATEMENTS.add(sql);
+      return sql;
+    }
+  }
+}
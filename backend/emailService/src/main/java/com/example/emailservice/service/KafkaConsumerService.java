@@ -3,34 +3,81 @@ package com.example.emailservice.service;
 import com.example.emailservice.model.EmailRequest;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class KafkaConsumerService {
     private final MailSenderService mailSenderService;
     private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor mailExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${email-consumer.mails-per-session:20}")
+    private int mailsPerSession;
 
+    @Timed(value = "email.consumer.batch", histogram = true)
     @KafkaListener(topics = "email_requests", groupId = "email-service-group")
-    public void listen(String message) {
+    public void listen(List<String> messages) {
+        log.info("Received batch of {} email requests", messages.size());
+        List<EmailRequest> requests = new ArrayList<>(messages.size());
+        // Номер записи в batch для каждого разобранного письма: нужен DefaultErrorHandler'у
+        List<Integer> positions = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            String message = messages.get(i);
+            try {
+                requests.add(objectMapper.readValue(message, EmailRequest.class));
+                positions.add(i);
+            } catch (JsonProcessingException e) {
+                log.error("Error parsing email request: {}", message, e);
+                meterRegistry.counter("email.consumer.errors", "reason", "parse").increment();
+            }
+        }
+
+        // Делим batch на части по SMTP-сессиям и ждём все отправки до коммита оффсетов
+        List<CompletableFuture<Void>> sends = new ArrayList<>();
+        for (int from = 0; from < requests.size(); from += mailsPerSession) {
+            List<EmailRequest> session = requests.subList(from, Math.min(from + mailsPerSession, requests.size()));
+            sends.add(CompletableFuture.runAsync(() -> mailSenderService.sendAll(session), mailExecutor));
+        }
         try {
-            log.info("Received email request: {}", message);
-            EmailRequest emailRequest = objectMapper.readValue(message, EmailRequest.class);
-            log.info("Parsed email request - To: {}, Subject: {}", emailRequest.getEmail(), emailRequest.getSubject());
-            mailSenderService.send(
-                    emailRequest.getEmail(),
-                    emailRequest.getSubject(),
-                    emailRequest.getBody()
-            );
-            log.info("Email sent successfully to: {}", emailRequest.getEmail());
-        } catch (JsonProcessingException e) {
-            log.error("Error parsing email request: {}", message, e);
-        } catch (Exception e) {
-            log.error("Error sending email: {}", message, e);
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            throw failedAt(sends, positions, e);
+        }
+    }
+
+    // Сессии идут по порядку, поэтому первая упавшая даёт самую раннюю неотправленную запись:
+    // оффсеты до неё фиксируются, с неё batch повторяется с backoff и в итоге уходит в DLT
+    private BatchListenerFailedException failedAt(List<CompletableFuture<Void>> sends, List<Integer> positions,
+                                                  CompletionException fallback) {
+        for (int i = 0; i < sends.size(); i++) {
+            try {
+                sends.get(i).join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                int firstFailed = cause instanceof MailSessionException sessionException
+                        ? sessionException.getFirstFailedIndex()
+                        : 0;
+                meterRegistry.counter("email.consumer.errors", "reason", "smtp").increment();
+                return new BatchListenerFailedException("Failed to send email request", cause,
+                        positions.get(i * mailsPerSession + firstFailed));
+            }
         }
+        return new BatchListenerFailedException("Failed to send email request", fallback.getCause(), 0);
     }
 }
@@ -1,33 +1,91 @@
 package com.example.emailservice.service;
 
+import com.example.emailservice.model.EmailRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MailSenderService {
+    private static final String FROM = "bermasdenis@yandex.com";
+
     private final JavaMailSender mailSender;
+    private final MeterRegistry meterRegistry;
 
     public void send(String to, String sub, String body){
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
             log.info("Attempting to send email to: {}, subject: {}", to, sub);
-            SimpleMailMessage mailMessage = new SimpleMailMessage();
-
-            String from = "bermasdenis@yandex.com";
-            mailMessage.setFrom(from);
-            mailMessage.setTo(to);
-            mailMessage.setSubject(sub);
-            mailMessage.setText(body);
-
-            mailSender.send(mailMessage);
+            mailSender.send(toMailMessage(to, sub, body));
             log.info("Email sent successfully to: {}", to);
+            record(sample, "success", 1, 0);
         } catch (Exception e) {
             log.error("Failed to send email to: {}, error: {}", to, e.getMessage(), e);
+            record(sample, "failure", 0, 1);
             throw e;
         }
     }
+
+    // Все письма уходят через одно SMTP-соединение вместо подключения на каждое
+    public void sendAll(List<EmailRequest> requests) {
+        SimpleMailMessage[] messages = requests.stream()
+                .map(request -> toMailMessage(request.getEmail(), request.getSubject(), request.getBody()))
+                .toArray(SimpleMailMessage[]::new);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            mailSender.send(messages);
+            log.info("Sent {} emails in one SMTP session", messages.length);
+            record(sample, "success", messages.length, 0);
+        } catch (MailSendException e) {
+            int failed = e.getFailedMessages().isEmpty() ? messages.length : e.getFailedMessages().size();
+            log.error("Failed to send {} of {} emails: {}", failed, messages.length, e.getMessage(), e);
+            record(sample, "failure", messages.length - failed, failed);
+            throw new MailSessionException("Failed to send " + failed + " of " + messages.length + " emails",
+                    firstFailedIndex(messages, e), e);
+        } catch (Exception e) {
+            log.error("Failed to send {} emails: {}", messages.length, e.getMessage(), e);
+            record(sample, "failure", 0, messages.length);
+            throw new MailSessionException("Failed to send " + messages.length + " emails", 0, e);
+        }
+    }
+
+    // JavaMailSenderImpl продолжает сессию после ошибки отдельного письма и кладёт в failedMessages
+    // исходные SimpleMailMessage; пустой список значит, что до отправки дело не дошло
+    private static int firstFailedIndex(SimpleMailMessage[] messages, MailSendException e) {
+        for (int i = 0; i < messages.length; i++) {
+            if (e.getFailedMessages().containsKey(messages[i])) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    // Время одной SMTP-сессии и число отправленных/неотправленных в ней писем
+    private void record(Timer.Sample sample, String outcome, int sent, int failed) {
+        sample.stop(Timer.builder("email.smtp.send")
+                .description("SMTP session send latency")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        meterRegistry.counter("email.smtp.messages", "outcome", "success").increment(sent);
+        meterRegistry.counter("email.smtp.messages", "outcome", "failure").increment(failed);
+    }
+
+    private SimpleMailMessage toMailMessage(String to, String sub, String body) {
+        SimpleMailMessage mailMessage = new SimpleMailMessage();
+        mailMessage.setFrom(FROM);
+        mailMessage.setTo(to);
+        mailMessage.setSubject(sub);
+        mailMessage.setText(body);
+        return mailMessage;
+    }
 }
@@ -0,0 +1,14 @@
+package com.example.emailservice.service;
+
+import lombok.Getter;
+
+// SMTP-сессия оборвалась: письма начиная с firstFailedIndex могли не уйти
+@Getter
+public class MailSessionException extends RuntimeException {
+    private final int firstFailedIndex;
+
+    public MailSessionException(String message, int firstFailedIndex, Throwable cause) {
+        super(message, cause);
+        this.firstFailedIndex = firstFailedIndex;
+    }
+}
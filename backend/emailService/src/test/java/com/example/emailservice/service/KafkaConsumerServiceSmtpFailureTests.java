@@ -0,0 +1,98 @@
+package com.example.emailservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static com.example.emailservice.service.KafkaConsumerServiceTests.TOPIC;
+import static com.example.emailservice.service.KafkaConsumerServiceTests.committedOffset;
+import static com.example.emailservice.service.KafkaConsumerServiceTests.request;
+import static com.example.emailservice.service.KafkaConsumerServiceTests.template;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// SMTP недоступен (GreenMail не запущен): оффсет не двигается, пока запись не уйдёт в DLT
+@SpringBootTest(properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.autoconfigure.exclude="
+                + "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration,"
+                + "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration",
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.protocol=smtp",
+        "spring.mail.properties.mail.smtp.auth=false",
+        "spring.mail.properties.mail.smtp.ssl.enable=false",
+        "email-consumer.retry-attempts=2",
+        "email-consumer.retry-backoff-ms=2000"
+})
+@EmbeddedKafka(partitions = 3, topics = "email_requests")
+class KafkaConsumerServiceSmtpFailureTests {
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @Autowired
+    private KafkaListenerEndpointRegistry registry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void waitForAssignment() {
+        for (MessageListenerContainer container : registry.getListenerContainers()) {
+            ContainerTestUtils.waitForAssignment(container, broker.getPartitionsPerTopic());
+        }
+    }
+
+    @Test
+    void unsentRecordIsNotCommittedUntilDeadLettered() throws Exception {
+        String payload = request("user@example.com");
+        template(broker).send(TOPIC, 0, null, payload).get();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (smtpFailures() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(smtpFailures()).isPositive();
+        // Первый повтор не раньше чем через retry-backoff-ms: до него batch не закоммичен
+        assertThat(committedOffset(broker, 0)).isEqualTo(-1);
+
+        Map<String, Object> props = KafkaTestUtils.consumerProps("dlt-reader", "false", broker);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        try (Consumer<String, String> consumer = new DefaultKafkaConsumerFactory<>(
+                props, new StringDeserializer(), new StringDeserializer()).createConsumer()) {
+            broker.consumeFromAnEmbeddedTopic(consumer, TOPIC + ".DLT");
+            ConsumerRecord<String, String> deadLetter =
+                    KafkaTestUtils.getSingleRecord(consumer, TOPIC + ".DLT", Duration.ofSeconds(30));
+            assertThat(deadLetter.value()).isEqualTo(payload);
+            assertThat(deadLetter.partition()).isZero();
+        }
+
+        deadline = System.currentTimeMillis() + 10_000;
+        while (committedOffset(broker, 0) < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertThat(committedOffset(broker, 0)).isEqualTo(1);
+    }
+
+    private double smtpFailures() {
+        Counter counter = meterRegistry.find("email.consumer.errors").tag("reason", "smtp").counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.emailservice.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.autoconfigure.exclude="
+                + "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration,"
+                + "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration",
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.protocol=smtp",
+        "spring.mail.properties.mail.smtp.auth=false",
+        "spring.mail.properties.mail.smtp.ssl.enable=false"
+})
+@EmbeddedKafka(partitions = 3, topics = "email_requests")
+class KafkaConsumerServiceTests {
+    static final String TOPIC = "email_requests";
+    static final String GROUP = "email-service-group";
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @Autowired
+    private KafkaListenerEndpointRegistry registry;
+
+    @BeforeEach
+    void waitForAssignment() {
+        // Консьюмер читает с latest: до назначения партиций записи отправлять нельзя
+        for (MessageListenerContainer container : registry.getListenerContainers()) {
+            ContainerTestUtils.waitForAssignment(container, broker.getPartitionsPerTopic());
+        }
+    }
+
+    @Test
+    void sentBatchIsCommitted() throws Exception {
+        KafkaTemplate<String, String> template = template(broker);
+        for (int i = 0; i < 3; i++) {
+            template.send(TOPIC, 0, null, request("user" + i + "@example.com")).get();
+        }
+
+        assertThat(greenMail.waitForIncomingEmail(10_000, 3)).isTrue();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (committedOffset(broker, 0) < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertThat(committedOffset(broker, 0)).isEqualTo(3);
+    }
+
+    static KafkaTemplate<String, String> template(EmbeddedKafkaBroker broker) {
+        Map<String, Object> props = KafkaTestUtils.producerProps(broker);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    static String request(String email) {
+        return "{\"email\":\"" + email + "\",\"subject\":\"Одобрена бронь\",\"body\":\"Книга ждёт вас\"}";
+    }
+
+    // -1, пока группа не зафиксировала ни одного оффсета партиции
+    static long committedOffset(EmbeddedKafkaBroker broker, int partition) throws Exception {
+        try (Admin admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()))) {
+            Map<TopicPartition, OffsetAndMetadata> offsets = admin.listConsumerGroupOffsets(GROUP)
+                    .partitionsToOffsetAndMetadata().get();
+            OffsetAndMetadata offset = offsets.get(new TopicPartition(TOPIC, partition));
+            return offset != null ? offset.offset() : -1;
+        }
+    }
+}
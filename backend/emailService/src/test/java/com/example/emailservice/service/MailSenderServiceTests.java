@@ -0,0 +1,85 @@
+package com.example.emailservice.service;
+
+import com.example.emailservice.model.EmailRequest;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class MailSenderServiceTests {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final List<EmailRequest> requests = List.of(
+            new EmailRequest("first@example.com", "Одобрена бронь", "first"),
+            new EmailRequest("second@example.com", "Одобрена бронь", "second"),
+            new EmailRequest("third@example.com", "Одобрена бронь", "third"));
+
+    @Test
+    void sendAllDeliversEveryMessage() throws Exception {
+        mailSenderService(smtpSender(ServerSetupTest.SMTP.getPort())).sendAll(requests);
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(3);
+        assertThat(received[0].getAllRecipients()[0].toString()).isEqualTo("first@example.com");
+    }
+
+    @Test
+    void sendAllPropagatesUnreachableSmtp() throws IOException {
+        MailSenderService service = mailSenderService(smtpSender(unusedPort()));
+
+        assertThatThrownBy(() -> service.sendAll(requests))
+                .isInstanceOfSatisfying(MailSessionException.class,
+                        e -> assertThat(e.getFirstFailedIndex()).isZero());
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+    }
+
+    @Test
+    void sendAllReportsFirstRejectedMessage() {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        doAnswer(invocation -> {
+            SimpleMailMessage[] messages = (SimpleMailMessage[]) invocation.getRawArguments()[0];
+            throw new MailSendException(Map.of(messages[1], new RuntimeException("550 mailbox unavailable")));
+        }).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        assertThatThrownBy(() -> mailSenderService(mailSender).sendAll(requests))
+                .isInstanceOfSatisfying(MailSessionException.class,
+                        e -> assertThat(e.getFirstFailedIndex()).isEqualTo(1));
+    }
+
+    private static MailSenderService mailSenderService(JavaMailSender mailSender) {
+        return new MailSenderService(mailSender, new SimpleMeterRegistry());
+    }
+
+    private static JavaMailSenderImpl smtpSender(int port) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(port);
+        sender.setProtocol("smtp");
+        return sender;
+    }
+
+    private static int unusedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
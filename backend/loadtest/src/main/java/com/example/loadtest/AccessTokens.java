@@ -0,0 +1,27 @@
+package com.example.loadtest;
+
+import java.time.Duration;
+import java.util.Random;
+
+// Токены выпускаются заранее: подпись RSA на стороне клиента не должна попадать в замеры
+final class AccessTokens {
+
+  private final String[] userTokens;
+  private final String librarianToken;
+
+  AccessTokens(JwtIssuerStub issuer, int users, Duration ttl) {
+    userTokens = new String[users];
+    for (int i = 0; i < users; i++) {
+      userTokens[i] = issuer.issueToken("lt-user-" + i, "ROLE_USER", ttl);
+    }
+    librarianToken = issuer.issueToken("lt-librarian", "ROLE_LIBRARIAN", ttl);
+  }
+
+  String user(Random random) {
+    return userTokens[random.nextInt(userTokens.length)];
+  }
+
+  String librarian() {
+    return librarianToken;
+  }
+}
@@ -0,0 +1,68 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.Random;
+
+// Полный цикл выдачи: читатель бронирует экземпляр, библиотекарь одобряет выдачу и принимает
+// возврат, после чего экземпляр снова доступен
+final class BorrowCycleScenario implements Scenario {
+
+  private final ServiceProcess operationService;
+  private final Dataset dataset;
+  private final AccessTokens tokens;
+  private final ObjectMapper objectMapper;
+
+  BorrowCycleScenario(
+      ServiceProcess operationService,
+      Dataset dataset,
+      AccessTokens tokens,
+      ObjectMapper objectMapper) {
+    this.operationService = operationService;
+    this.dataset = dataset;
+    this.tokens = tokens;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public String name() {
+    return "borrow-cycle";
+  }
+
+  @Override
+  public void iterate(LoadDriver driver, Random random) throws IOException {
+    Dataset.Copy copy = dataset.randomCopy(random);
+    HttpResponse<String> reserved =
+        driver.post(
+            "POST /api/v2/transactions",
+            operationService.uri("/api/v2/transactions?bookId=" + copy.bookId),
+            tokens.user(random),
+            objectMapper.writeValueAsString(Map.of("libraryId", copy.libraryId)));
+    if (reserved == null || reserved.statusCode() != 201) {
+      return;
+    }
+    JsonNode transaction = objectMapper.readTree(reserved.body());
+    long transactionId = transaction.get("id").asLong();
+    // Сервис сам выбирает свободный экземпляр книги в библиотеке
+    String inventoryNumber = dataset.inventoryNumber(transaction.get("bookCopyId").asLong());
+
+    HttpResponse<String> approved =
+        driver.post(
+            "POST /api/v2/transactions/{id}/approve",
+            operationService.uri("/api/v2/transactions/" + transactionId + "/approve"),
+            tokens.librarian(),
+            "");
+    if (approved == null || approved.statusCode() != 200 || inventoryNumber == null) {
+      return;
+    }
+
+    driver.post(
+        "POST /api/v2/transactions/return",
+        operationService.uri("/api/v2/transactions/return"),
+        tokens.librarian(),
+        objectMapper.writeValueAsString(Map.of("inventoryNumber", inventoryNumber)));
+  }
+}
@@ -0,0 +1,76 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+// Анонимный читатель: фильтр по жанру, текстовый поиск, прокрутка по теме и карточка книги
+final class CatalogSearchScenario implements Scenario {
+
+  private final ServiceProcess bookService;
+  private final Dataset dataset;
+  private final ObjectMapper objectMapper;
+
+  CatalogSearchScenario(ServiceProcess bookService, Dataset dataset, ObjectMapper objectMapper) {
+    this.bookService = bookService;
+    this.dataset = dataset;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public String name() {
+    return "catalog-search";
+  }
+
+  @Override
+  public void iterate(LoadDriver driver, Random random) throws IOException {
+    driver.get(
+        "GET /api/v2/books?genres",
+        bookService.uri(
+            "/api/v2/books?genres="
+                + encode(dataset.randomGenre(random))
+                + "&page="
+                + random.nextInt(5)
+                + "&size=20"),
+        null);
+
+    String word = DatasetSeeder.TITLE_WORDS.get(random.nextInt(DatasetSeeder.TITLE_WORDS.size()));
+    driver.get(
+        "GET /api/v2/books?name&available",
+        bookService.uri("/api/v2/books?name=" + encode(word) + "&available=true&size=20"),
+        null);
+
+    String scrollQuery = "/api/v2/books/scroll?themes=" + encode(dataset.randomTheme(random));
+    HttpResponse<String> firstPage =
+        driver.get(
+            "GET /api/v2/books/scroll", bookService.uri(scrollQuery + "&limit=20"), null);
+    String cursor = nextCursor(firstPage);
+    if (cursor != null) {
+      driver.get(
+          "GET /api/v2/books/scroll?cursor",
+          bookService.uri(scrollQuery + "&limit=20&cursor=" + encode(cursor)),
+          null);
+    }
+
+    driver.get(
+        "GET /api/v2/books/{id}",
+        bookService.uri("/api/v2/books/" + dataset.randomBookId(random)),
+        null);
+  }
+
+  private String nextCursor(HttpResponse<String> response) throws IOException {
+    if (response == null || response.statusCode() != 200) {
+      return null;
+    }
+    JsonNode nextCursor = objectMapper.readTree(response.body()).get("nextCursor");
+    return nextCursor == null || nextCursor.isNull() ? null : nextCursor.asText();
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,73 @@
+package com.example.loadtest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Идентификаторы засеянных данных, из которых сценарии выбирают случайные книги и экземпляры
+final class Dataset {
+
+  private final long[] bookIds;
+  private final List<Copy> copies;
+  private final Map<Long, String> inventoryNumbers;
+  private final long[] libraryIds;
+  private final List<String> genres;
+  private final List<String> themes;
+
+  Dataset(
+      long[] bookIds,
+      List<Copy> copies,
+      Map<Long, String> inventoryNumbers,
+      long[] libraryIds,
+      List<String> genres,
+      List<String> themes) {
+    this.bookIds = bookIds;
+    this.copies = copies;
+    this.inventoryNumbers = inventoryNumbers;
+    this.libraryIds = libraryIds;
+    this.genres = genres;
+    this.themes = themes;
+  }
+
+  long randomBookId(Random random) {
+    return bookIds[random.nextInt(bookIds.length)];
+  }
+
+  Copy randomCopy(Random random) {
+    return copies.get(random.nextInt(copies.size()));
+  }
+
+  long randomLibraryId(Random random) {
+    return libraryIds[random.nextInt(libraryIds.length)];
+  }
+
+  String randomGenre(Random random) {
+    return genres.get(random.nextInt(genres.size()));
+  }
+
+  String randomTheme(Random random) {
+    return themes.get(random.nextInt(themes.size()));
+  }
+
+  String inventoryNumber(long copyId) {
+    return inventoryNumbers.get(copyId);
+  }
+
+  int bookCount() {
+    return bookIds.length;
+  }
+
+  int copyCount() {
+    return copies.size();
+  }
+
+  static final class Copy {
+    final long bookId;
+    final long libraryId;
+
+    Copy(long bookId, long libraryId) {
+      this.bookId = bookId;
+      this.libraryId = libraryId;
+    }
+  }
+}
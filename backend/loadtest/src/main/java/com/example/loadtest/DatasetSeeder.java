@@ -0,0 +1,138 @@
+package com.example.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+
+// Схема накатывается теми же миграциями, что и у сервисов, затем init_database.sql и
+// масштабируемый набор из seed/scaled_dataset.sql
+@Slf4j
+final class DatasetSeeder {
+
+  // Словарь названий книг; CatalogSearchScenario ищет по этим же словам
+  static final List<String> TITLE_WORDS =
+      List.of(
+          "война", "мир", "ночь", "река", "сад", "империя", "тень", "зима", "остров", "письма");
+
+  private static final String SCALED_DATASET = "/seed/scaled_dataset.sql";
+
+  private final String jdbcUrl;
+  private final String username;
+  private final String password;
+
+  DatasetSeeder(String jdbcUrl, String username, String password) {
+    this.jdbcUrl = jdbcUrl;
+    this.username = username;
+    this.password = password;
+  }
+
+  void migrate(LoadTestSettings settings) {
+    Flyway.configure()
+        .dataSource(jdbcUrl, username, password)
+        .locations("filesystem:" + settings.migrations.toAbsolutePath())
+        .baselineOnMigrate(true)
+        .load()
+        .migrate();
+  }
+
+  void seed(LoadTestSettings settings) throws IOException, SQLException {
+    long started = System.currentTimeMillis();
+    try (Connection connection = DriverManager.getConnection(jdbcUrl, username, password);
+        Statement statement = connection.createStatement()) {
+      statement.execute(Files.readString(settings.initSql));
+      statement.execute(scaledDatasetSql(settings));
+    }
+    log.info("Dataset seeded in {} ms", System.currentTimeMillis() - started);
+  }
+
+  Dataset load() throws SQLException {
+    try (Connection connection = DriverManager.getConnection(jdbcUrl, username, password);
+        Statement statement = connection.createStatement()) {
+      long[] bookIds = longs(statement, "SELECT id FROM book ORDER BY id");
+      long[] libraryIds = longs(statement, "SELECT id FROM library ORDER BY id");
+
+      List<Dataset.Copy> copies = new ArrayList<>();
+      Map<Long, String> inventoryNumbers = new HashMap<>();
+      // Экземпляры с заявками из набора данных не бронируются, в сценарий выдачи не берём
+      try (ResultSet rows =
+          statement.executeQuery(
+              "SELECT bc.id, bc.book_id, bc.library_id, bc.inventory_number FROM book_copy bc"
+                  + " WHERE NOT EXISTS (SELECT 1 FROM book_transaction bt"
+                  + " WHERE bt.book_copy_id = bc.id)")) {
+        while (rows.next()) {
+          copies.add(new Dataset.Copy(rows.getLong(2), rows.getLong(3)));
+          inventoryNumbers.put(rows.getLong(1), rows.getString(4));
+        }
+      }
+
+      return new Dataset(
+          bookIds,
+          copies,
+          inventoryNumbers,
+          libraryIds,
+          strings(statement, "SELECT name FROM genre ORDER BY id"),
+          strings(statement, "SELECT name FROM theme ORDER BY id"));
+    }
+  }
+
+  private static String scaledDatasetSql(LoadTestSettings settings) throws IOException {
+    String sql;
+    try (InputStream input = DatasetSeeder.class.getResourceAsStream(SCALED_DATASET)) {
+      if (input == null) {
+        throw new IllegalStateException("Resource " + SCALED_DATASET + " not found");
+      }
+      sql = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    Map<String, String> values = new HashMap<>();
+    values.put("books", String.valueOf(settings.books));
+    values.put("copiesPerBook", String.valueOf(settings.copiesPerBook));
+    values.put("authors", String.valueOf(settings.authors));
+    values.put("libraries", String.valueOf(settings.libraries));
+    values.put("users", String.valueOf(settings.users));
+    values.put("ratingsPerBook", String.valueOf(settings.ratingsPerBook));
+    values.put("pendingEvery", String.valueOf(settings.pendingEvery));
+    values.put(
+        "titleWords",
+        TITLE_WORDS.stream()
+            .map(word -> "'" + word + "'")
+            .collect(Collectors.joining(", ", "ARRAY[", "]")));
+    for (Map.Entry<String, String> value : values.entrySet()) {
+      sql = sql.replace("${" + value.getKey() + "}", value.getValue());
+    }
+    return sql;
+  }
+
+  private static long[] longs(Statement statement, String query) throws SQLException {
+    List<Long> values = new ArrayList<>();
+    try (ResultSet rows = statement.executeQuery(query)) {
+      while (rows.next()) {
+        values.add(rows.getLong(1));
+      }
+    }
+    return values.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  private static List<String> strings(Statement statement, String query) throws SQLException {
+    List<String> values = new ArrayList<>();
+    try (ResultSet rows = statement.executeQuery(query)) {
+      while (rows.next()) {
+        values.add(rows.getString(1));
+      }
+    }
+    return values;
+  }
+}
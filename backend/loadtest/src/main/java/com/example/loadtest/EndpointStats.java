@@ -0,0 +1,45 @@
+package com.example.loadtest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+// Задержки одного эндпоинта в микросекундах; ошибки - ответы не 2xx и сбои соединения
+final class EndpointStats {
+
+  private final String endpoint;
+  private final Histogram latencies = new ConcurrentHistogram(3);
+  private final LongAdder errors = new LongAdder();
+
+  EndpointStats(String endpoint) {
+    this.endpoint = endpoint;
+  }
+
+  void record(long elapsedNanos, boolean success) {
+    latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+    if (!success) {
+      errors.increment();
+    }
+  }
+
+  String endpoint() {
+    return endpoint;
+  }
+
+  long requests() {
+    return latencies.getTotalCount();
+  }
+
+  long errors() {
+    return errors.sum();
+  }
+
+  double percentileMillis(double percentile) {
+    return latencies.getValueAtPercentile(percentile) / 1000.0;
+  }
+
+  double maxMillis() {
+    return latencies.getMaxValue() / 1000.0;
+  }
+}
@@ -0,0 +1,107 @@
+package com.example.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Jwts;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+// Замена Keycloak: отдаёт JWKS реалма boobook и выпускает токены того же вида, подписанные своим
+// RSA-ключом
+final class JwtIssuerStub implements AutoCloseable {
+
+  private static final String REALM_PATH = "/realms/boobook";
+  private static final String CERTS_PATH = REALM_PATH + "/protocol/openid-connect/certs";
+  private static final String KEY_ID = "loadtest";
+
+  private final KeyPair keyPair;
+  private final HttpServer server;
+
+  JwtIssuerStub() throws IOException, NoSuchAlgorithmException {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(2048);
+    keyPair = generator.generateKeyPair();
+
+    byte[] jwks = jwks().getBytes(StandardCharsets.UTF_8);
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext(
+        CERTS_PATH,
+        exchange -> {
+          exchange.getResponseHeaders().set("Content-Type", "application/json");
+          exchange.sendResponseHeaders(200, jwks.length);
+          try (OutputStream body = exchange.getResponseBody()) {
+            body.write(jwks);
+          }
+        });
+    server.start();
+  }
+
+  String issuerUri() {
+    return "http://127.0.0.1:" + server.getAddress().getPort() + REALM_PATH;
+  }
+
+  String jwkSetUri() {
+    return "http://127.0.0.1:" + server.getAddress().getPort() + CERTS_PATH;
+  }
+
+  // Для JwtTokenUtil в operationService, который проверяет подпись сам
+  String publicKeyBase64() {
+    return Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+  }
+
+  String issueToken(String userId, String role, Duration ttl) {
+    Instant now = Instant.now();
+    return Jwts.builder()
+        .header()
+        .keyId(KEY_ID)
+        .and()
+        .issuer(issuerUri())
+        .subject(userId)
+        .claim("preferred_username", userId)
+        .claim("given_name", "Load")
+        .claim("family_name", userId)
+        .claim("email", userId + "@loadtest.local")
+        .claim("realm_access", Map.of("roles", List.of(role)))
+        .issuedAt(Date.from(now))
+        .expiration(Date.from(now.plus(ttl)))
+        .signWith(keyPair.getPrivate(), Jwts.SIG.RS256)
+        .compact();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+
+  private String jwks() {
+    RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+    Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    return "{\"keys\":[{\"kty\":\"RSA\",\"kid\":\""
+        + KEY_ID
+        + "\",\"use\":\"sig\",\"alg\":\"RS256\",\"n\":\""
+        + encoder.encodeToString(unsigned(publicKey.getModulus()))
+        + "\",\"e\":\""
+        + encoder.encodeToString(unsigned(publicKey.getPublicExponent()))
+        + "\"}]}";
+  }
+
+  // JWK хранит числа без знакового нулевого байта, который добавляет BigInteger
+  private static byte[] unsigned(BigInteger value) {
+    byte[] bytes = value.toByteArray();
+    return bytes.length > 1 && bytes[0] == 0 ? Arrays.copyOfRange(bytes, 1, bytes.length) : bytes;
+  }
+}
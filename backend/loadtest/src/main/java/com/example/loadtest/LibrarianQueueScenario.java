@@ -0,0 +1,35 @@
+package com.example.loadtest;
+
+import java.util.Random;
+
+// Библиотекарь просматривает очередь заявок своей библиотеки: постранично и целиком
+final class LibrarianQueueScenario implements Scenario {
+
+  private final ServiceProcess operationService;
+  private final Dataset dataset;
+  private final AccessTokens tokens;
+
+  LibrarianQueueScenario(ServiceProcess operationService, Dataset dataset, AccessTokens tokens) {
+    this.operationService = operationService;
+    this.dataset = dataset;
+    this.tokens = tokens;
+  }
+
+  @Override
+  public String name() {
+    return "librarian-queue";
+  }
+
+  @Override
+  public void iterate(LoadDriver driver, Random random) {
+    long libraryId = dataset.randomLibraryId(random);
+    driver.get(
+        "GET /api/v2/transactions/scroll",
+        operationService.uri("/api/v2/transactions/scroll?libraryId=" + libraryId + "&limit=20"),
+        tokens.librarian());
+    driver.get(
+        "GET /api/v2/transactions",
+        operationService.uri("/api/v2/transactions?libraryId=" + libraryId),
+        tokens.librarian());
+  }
+}
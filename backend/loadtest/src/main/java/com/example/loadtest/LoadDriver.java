@@ -0,0 +1,123 @@
+package com.example.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+// Закрытая модель нагрузки: у каждого клиента свой поток, следующий запрос уходит сразу после
+// ответа на предыдущий. Замеры пишутся только после прогрева
+@Slf4j
+final class LoadDriver {
+
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+  private final HttpClient client;
+  private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+  private volatile boolean recording;
+  private volatile boolean stopped;
+
+  LoadDriver(HttpClient client) {
+    this.client = client;
+  }
+
+  HttpResponse<String> get(String endpoint, URI uri, String token) {
+    return send(endpoint, request(uri, token).GET().build());
+  }
+
+  HttpResponse<String> post(String endpoint, URI uri, String token, String json) {
+    return send(
+        endpoint,
+        request(uri, token)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build());
+  }
+
+  LoadTestReport run(Map<Scenario, Integer> clients, Duration warmup, Duration duration)
+      throws InterruptedException {
+    int threads = clients.values().stream().mapToInt(Integer::intValue).sum();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    long seed = 42;
+    for (Map.Entry<Scenario, Integer> entry : clients.entrySet()) {
+      Scenario scenario = entry.getKey();
+      for (int i = 0; i < entry.getValue(); i++) {
+        Random random = new Random(seed++);
+        executor.execute(() -> loop(scenario, random));
+      }
+    }
+
+    log.info("Warming up with {} clients for {} s", threads, warmup.toSeconds());
+    Thread.sleep(warmup.toMillis());
+    recording = true;
+    long started = System.nanoTime();
+    log.info("Measuring for {} s", duration.toSeconds());
+    Thread.sleep(duration.toMillis());
+    recording = false;
+    double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+    stopped = true;
+    executor.shutdown();
+    if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+      executor.shutdownNow();
+    }
+
+    List<EndpointStats> endpoints = new ArrayList<>(stats.values());
+    endpoints.sort(Comparator.comparing(EndpointStats::endpoint));
+    return new LoadTestReport(endpoints, elapsedSeconds);
+  }
+
+  private void loop(Scenario scenario, Random random) {
+    while (!stopped) {
+      try {
+        scenario.iterate(this, random);
+      } catch (IOException | RuntimeException e) {
+        log.debug("Scenario {} iteration failed", scenario.name(), e);
+      }
+    }
+  }
+
+  private HttpRequest.Builder request(URI uri, String token) {
+    HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT);
+    if (token != null) {
+      builder.header("Authorization", "Bearer " + token);
+    }
+    return builder;
+  }
+
+  // null - запрос не выполнен (ошибка соединения или таймаут), он тоже считается ошибкой
+  private HttpResponse<String> send(String endpoint, HttpRequest request) {
+    long started = System.nanoTime();
+    try {
+      HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+      record(endpoint, started, response.statusCode() >= 200 && response.statusCode() < 300);
+      return response;
+    } catch (IOException e) {
+      record(endpoint, started, false);
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  private void record(String endpoint, long startedNanos, boolean success) {
+    if (recording) {
+      stats
+          .computeIfAbsent(endpoint, EndpointStats::new)
+          .record(System.nanoTime() - startedNanos, success);
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package com.example.loadtest;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import lombok.extern.slf4j.Slf4j;
+
+// Пропускная способность и p50/p99 по эндпоинтам: таблица в лог и report.csv
+@Slf4j
+final class LoadTestReport {
+
+  private final List<EndpointStats> endpoints;
+  private final double elapsedSeconds;
+
+  LoadTestReport(List<EndpointStats> endpoints, double elapsedSeconds) {
+    this.endpoints = endpoints;
+    this.elapsedSeconds = elapsedSeconds;
+  }
+
+  void print() {
+    StringBuilder table = new StringBuilder();
+    table.append(
+        String.format(
+            Locale.ROOT,
+            "%n%-44s %9s %7s %9s %9s %9s %9s%n",
+            "endpoint",
+            "requests",
+            "errors",
+            "req/s",
+            "p50 ms",
+            "p99 ms",
+            "max ms"));
+    for (EndpointStats endpoint : endpoints) {
+      table.append(
+          String.format(
+              Locale.ROOT,
+              "%-44s %9d %7d %9.1f %9.2f %9.2f %9.2f%n",
+              endpoint.endpoint(),
+              endpoint.requests(),
+              endpoint.errors(),
+              endpoint.requests() / elapsedSeconds,
+              endpoint.percentileMillis(50),
+              endpoint.percentileMillis(99),
+              endpoint.maxMillis()));
+    }
+    log.info("Load test results for {} s:{}", Math.round(elapsedSeconds), table);
+  }
+
+  void writeCsv(Path file) throws IOException {
+    try (PrintWriter writer =
+        new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+      writer.println("endpoint,requests,errors,throughput_rps,p50_ms,p99_ms,max_ms");
+      for (EndpointStats endpoint : endpoints) {
+        writer.println(
+            String.format(
+                Locale.ROOT,
+                "\"%s\",%d,%d,%.2f,%.3f,%.3f,%.3f",
+                endpoint.endpoint(),
+                endpoint.requests(),
+                endpoint.errors(),
+                endpoint.requests() / elapsedSeconds,
+                endpoint.percentileMillis(50),
+                endpoint.percentileMillis(99),
+                endpoint.maxMillis()));
+      }
+    }
+    log.info("Report written to {}", file);
+  }
+}
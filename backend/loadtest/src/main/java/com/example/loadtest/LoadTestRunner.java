@@ -0,0 +1,98 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.lifecycle.Startables;
+import org.testcontainers.utility.DockerImageName;
+
+// Нагрузочный прогон без стенда: Postgres и Kafka в Testcontainers, вместо Keycloak - заглушка
+// издателя токенов, bookService и operationService - процессы из собранных bootJar
+@Slf4j
+public class LoadTestRunner {
+
+  private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+  public static void main(String[] args) throws Exception {
+    LoadTestSettings settings = new LoadTestSettings();
+    Files.createDirectories(settings.reportDir);
+
+    try (PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:15"))
+                .withDatabaseName("boobook")
+                .withUsername("admin")
+                .withPassword("admin");
+        KafkaContainer kafka =
+            new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.5.0"));
+        JwtIssuerStub issuer = new JwtIssuerStub()) {
+      Startables.deepStart(postgres, kafka).join();
+
+      DatasetSeeder seeder =
+          new DatasetSeeder(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+      seeder.migrate(settings);
+      seeder.seed(settings);
+      Dataset dataset = seeder.load();
+      log.info(
+          "Dataset: {} books, {} reservable copies", dataset.bookCount(), dataset.copyCount());
+
+      Map<String, String> environment = new HashMap<>();
+      environment.put("SPRING_DATASOURCE_URL", postgres.getJdbcUrl());
+      environment.put("SPRING_DATASOURCE_USERNAME", postgres.getUsername());
+      environment.put("SPRING_DATASOURCE_PASSWORD", postgres.getPassword());
+      environment.put("SPRING_KAFKA_BOOTSTRAP_SERVERS", kafka.getBootstrapServers());
+      environment.put("SPRING_SECURITY_OAUTH2_RESOURCESERVER_JWT_ISSUER_URI", issuer.issuerUri());
+      environment.put("SPRING_SECURITY_OAUTH2_RESOURCESERVER_JWT_JWK_SET_URI", issuer.jwkSetUri());
+      environment.put("JWT_PUBLIC_KEY", issuer.publicKeyBase64());
+      environment.put("CATALOG_INDEX_ENABLED", String.valueOf(settings.catalogIndex));
+
+      HttpClient client =
+          HttpClient.newBuilder()
+              .version(HttpClient.Version.HTTP_1_1)
+              .connectTimeout(Duration.ofSeconds(5))
+              .build();
+
+      try (ServiceProcess bookService =
+              ServiceProcess.start(
+                  "bookService",
+                  settings.bookServiceJar,
+                  settings.serviceJvmArgs,
+                  environment,
+                  settings.reportDir);
+          ServiceProcess operationService =
+              ServiceProcess.start(
+                  "operationService",
+                  settings.operationServiceJar,
+                  settings.serviceJvmArgs,
+                  environment,
+                  settings.reportDir)) {
+        bookService.awaitReady(client, "/api/v2/genres", STARTUP_TIMEOUT);
+        operationService.awaitReady(client, "/api/v2/ratings?bookId=1", STARTUP_TIMEOUT);
+
+        Duration tokenTtl = settings.warmup.plus(settings.duration).plusHours(1);
+        AccessTokens tokens = new AccessTokens(issuer, settings.users, tokenTtl);
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        Map<Scenario, Integer> clients = new LinkedHashMap<>();
+        clients.put(
+            new CatalogSearchScenario(bookService, dataset, objectMapper), settings.searchClients);
+        clients.put(
+            new BorrowCycleScenario(operationService, dataset, tokens, objectMapper),
+            settings.borrowClients);
+        clients.put(
+            new LibrarianQueueScenario(operationService, dataset, tokens), settings.queueClients);
+
+        LoadTestReport report =
+            new LoadDriver(client).run(clients, settings.warmup, settings.duration);
+        report.print();
+        report.writeCsv(settings.reportDir.resolve("report.csv"));
+      }
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package com.example.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+// Параметры прогона из системных свойств loadtest.*; пути подставляет задача :loadtest:run
+final class LoadTestSettings {
+
+  // Размер набора данных
+  final int books = intProperty("loadtest.books", 100_000);
+  final int copiesPerBook = intProperty("loadtest.copies-per-book", 3);
+  final int authors = intProperty("loadtest.authors", 20_000);
+  final int libraries = intProperty("loadtest.libraries", 20);
+  final int users = intProperty("loadtest.users", 1_000);
+  final int ratingsPerBook = intProperty("loadtest.ratings-per-book", 2);
+  final int pendingEvery = intProperty("loadtest.pending-every", 50);
+
+  // Нагрузка: число параллельных клиентов каждого сценария, без пауз между итерациями
+  final int searchClients = intProperty("loadtest.search-clients", 32);
+  final int borrowClients = intProperty("loadtest.borrow-clients", 8);
+  final int queueClients = intProperty("loadtest.queue-clients", 4);
+  final Duration warmup = Duration.ofSeconds(intProperty("loadtest.warmup-seconds", 30));
+  final Duration duration = Duration.ofSeconds(intProperty("loadtest.duration-seconds", 120));
+
+  final boolean catalogIndex = Boolean.parseBoolean(System.getProperty("loadtest.catalog-index"));
+  final String serviceJvmArgs = System.getProperty("loadtest.service-jvm-args", "-Xmx1g");
+
+  final Path bookServiceJar = pathProperty("loadtest.book-service-jar");
+  final Path operationServiceJar = pathProperty("loadtest.operation-service-jar");
+  final Path migrations = pathProperty("loadtest.migrations");
+  final Path initSql = pathProperty("loadtest.init-sql");
+  final Path reportDir = pathProperty("loadtest.report-dir");
+
+  private static int intProperty(String name, int defaultValue) {
+    return Integer.parseInt(System.getProperty(name, String.valueOf(defaultValue)));
+  }
+
+  private static Path pathProperty(String name) {
+    String value = System.getProperty(name);
+    if (value == null || value.isEmpty()) {
+      throw new IllegalStateException(
+          "System property " + name + " is not set, run the load test with gradle :loadtest:run");
+    }
+    return Path.of(value);
+  }
+}
@@ -0,0 +1,12 @@
+package com.example.loadtest;
+
+import java.io.IOException;
+import java.util.Random;
+
+// Одна итерация пользовательского сценария; клиент повторяет её без пауз до конца прогона
+interface Scenario {
+
+  String name();
+
+  void iterate(LoadDriver driver, Random random) throws IOException;
+}
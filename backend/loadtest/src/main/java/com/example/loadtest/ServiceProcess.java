@@ -0,0 +1,99 @@
+package com.example.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+// Сервис запускается из собранного bootJar отдельным процессом, вывод пишется в лог рядом с отчётом
+@Slf4j
+final class ServiceProcess implements AutoCloseable {
+
+  private final String name;
+  private final Process process;
+  private final Path logFile;
+  private final URI baseUri;
+
+  private ServiceProcess(String name, Process process, Path logFile, int port) {
+    this.name = name;
+    this.process = process;
+    this.logFile = logFile;
+    this.baseUri = URI.create("http://127.0.0.1:" + port);
+  }
+
+  static ServiceProcess start(
+      String name, Path jar, String jvmArgs, Map<String, String> environment, Path reportDir)
+      throws IOException {
+    int port = freePort();
+    List<String> command = new ArrayList<>();
+    command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    if (!jvmArgs.isBlank()) {
+      command.addAll(Arrays.asList(jvmArgs.trim().split("\\s+")));
+    }
+    command.add("-jar");
+    command.add(jar.toString());
+    command.add("--server.port=" + port);
+
+    Path logFile = reportDir.resolve(name + ".log");
+    ProcessBuilder builder =
+        new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(logFile.toFile());
+    builder.environment().putAll(environment);
+
+    log.info("Starting {} on port {}, log: {}", name, port, logFile);
+    return new ServiceProcess(name, builder.start(), logFile, port);
+  }
+
+  URI uri(String pathAndQuery) {
+    return baseUri.resolve(pathAndQuery);
+  }
+
+  // Сервис готов, когда публичный эндпоинт отвечает 2xx
+  void awaitReady(HttpClient client, String probePath, Duration timeout)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    HttpRequest probe =
+        HttpRequest.newBuilder(uri(probePath)).timeout(Duration.ofSeconds(5)).GET().build();
+    while (System.nanoTime() < deadline) {
+      if (!process.isAlive()) {
+        throw new IllegalStateException(
+            name + " exited with code " + process.exitValue() + ", see " + logFile);
+      }
+      try {
+        int status = client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status >= 200 && status < 300) {
+          log.info("{} is ready", name);
+          return;
+        }
+      } catch (IOException e) {
+        // ещё не слушает порт
+      }
+      Thread.sleep(1000);
+    }
+    throw new IllegalStateException(
+        name + " did not become ready in " + timeout.toSeconds() + " s, see " + logFile);
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    process.destroy();
+    if (!process.waitFor(30, TimeUnit.SECONDS)) {
+      process.destroyForcibly();
+    }
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
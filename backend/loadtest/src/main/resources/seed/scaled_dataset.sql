@@ -0,0 +1,114 @@
+-- Масштабируемый набор данных для нагрузочного теста, выполняется после init_database.sql
+-- Плейсхолдеры ${...} подставляет DatasetSeeder из параметров loadtest.*
+-- Все сгенерированные книги и экземпляры помечены префиксом LT-
+
+-- ============================================
+-- 1. БИБЛИОТЕКИ И АВТОРЫ
+-- ============================================
+
+INSERT INTO library (name, address, opening_time, closing_time)
+SELECT 'Нагрузочная библиотека №' || g, 'г. Тестовый, ул. Нагрузочная, д. ' || g, '08:00:00', '22:00:00'
+FROM generate_series(1, ${libraries}) AS g;
+
+INSERT INTO author (name, surname, birth_date)
+SELECT 'Автор' || g, 'Нагрузочный' || g, DATE '1850-01-01' + (g % 50000)
+FROM generate_series(1, ${authors}) AS g;
+
+-- ============================================
+-- 2. КНИГИ
+-- ============================================
+
+-- Названия собираются из общего словаря, чтобы текстовый поиск находил много книг
+INSERT INTO book (title, year_published, isbn, genre_id, publisher_id, theme_id)
+SELECT initcap(w.words[1 + g % array_length(w.words, 1)]) || ' '
+           || w.words[1 + (g / 7) % array_length(w.words, 1)] || ' ' || g,
+       1900 + g % 125,
+       'LT-' || lpad(g::TEXT, 10, '0'),
+       r.genres[1 + g % array_length(r.genres, 1)],
+       r.publishers[1 + (g / 3) % array_length(r.publishers, 1)],
+       r.themes[1 + (g / 5) % array_length(r.themes, 1)]
+FROM generate_series(1, ${books}) AS g,
+     (SELECT ${titleWords}::TEXT[] AS words) AS w,
+     (SELECT (SELECT array_agg(id ORDER BY id) FROM genre) AS genres,
+             (SELECT array_agg(id ORDER BY id) FROM publisher) AS publishers,
+             (SELECT array_agg(id ORDER BY id) FROM theme) AS themes) AS r;
+
+-- У каждой книги по два автора из сгенерированных
+INSERT INTO author_books (book_id, author_id)
+SELECT DISTINCT b.id, a.ids[1 + (b.id * 31 + k * 17) % array_length(a.ids, 1)]
+FROM book b
+CROSS JOIN generate_series(1, 2) AS k
+CROSS JOIN (SELECT array_agg(id ORDER BY id) AS ids FROM author WHERE surname LIKE 'Нагрузочный%') AS a
+WHERE b.isbn LIKE 'LT-%'
+ON CONFLICT DO NOTHING;
+
+-- ============================================
+-- 3. ЭКЗЕМПЛЯРЫ
+-- ============================================
+
+INSERT INTO book_copy (book_id, library_id, inventory_number, available)
+SELECT b.id, l.ids[1 + (b.id + c) % array_length(l.ids, 1)], 'LT-' || b.id || '-' || c, true
+FROM book b
+CROSS JOIN generate_series(1, ${copiesPerBook}) AS c
+CROSS JOIN (SELECT array_agg(id ORDER BY id) AS ids FROM library) AS l
+WHERE b.isbn LIKE 'LT-%';
+
+-- ============================================
+-- 4. ОЦЕНКИ И ОЧЕРЕДЬ ЗАЯВОК
+-- ============================================
+
+INSERT INTO rating (user_id, book_id, rating_value, review, time)
+SELECT 'lt-user-' || (b.id * ${ratingsPerBook} + r) % ${users},
+       b.id,
+       1 + (b.id + r) % 5,
+       'Отзыв нагрузочного теста',
+       now() - ((b.id + r) % 1000) * INTERVAL '1 hour'
+FROM book b
+CROSS JOIN generate_series(1, ${ratingsPerBook}) AS r
+WHERE b.isbn LIKE 'LT-%';
+
+-- Каждый ${pendingEvery}-й экземпляр уже забронирован: очередь библиотекаря не пустая
+INSERT INTO book_transaction (book_copy_id, user_id, returned, creation_date, status)
+SELECT bc.id, 'lt-user-' || bc.id % ${users}, false, now() - (bc.id % 720) * INTERVAL '1 minute', 'PENDING'
+FROM book_copy bc
+WHERE bc.inventory_number LIKE 'LT-%' AND bc.id % ${pendingEvery} = 0;
+
+-- ============================================
+-- 5. ПЕРЕСЧЁТ АГРЕГАТОВ И СТАТИСТИКИ
+-- ============================================
+
+UPDATE book b
+SET rating_sum = s.rating_sum,
+    rating_count = s.rating_count,
+    average_rating = s.rating_sum::REAL / s.rating_count
+FROM (
+    SELECT r.book_id, SUM(r.rating_value) AS rating_sum, COUNT(*) AS rating_count
+    FROM rating r
+    GROUP BY r.book_id
+) s
+WHERE b.id = s.book_id;
+
+UPDATE book b
+SET total_copies = s.total_copies,
+    available_copies = s.available_copies
+FROM (
+    SELECT bc.book_id,
+           COUNT(*) AS total_copies,
+           COUNT(*) FILTER (WHERE bc.available) AS available_copies
+    FROM book_copy bc
+    GROUP BY bc.book_id
+) s
+WHERE b.id = s.book_id;
+
+INSERT INTO book_library_copies (book_id, library_id, total_copies, available_copies)
+SELECT bc.book_id,
+       bc.library_id,
+       COUNT(*),
+       COUNT(*) FILTER (WHERE bc.available)
+FROM book_copy bc
+GROUP BY bc.book_id, bc.library_id
+ON CONFLICT (book_id, library_id) DO UPDATE
+SET total_copies = EXCLUDED.total_copies,
+    available_copies = EXCLUDED.available_copies;
+
+ANALYZE;
@@ -2,6 +2,7 @@ package com.example.operationservice.api;
 
 import com.example.operationservice.model.LibraryReportResponse;
 import com.example.operationservice.service.LibraryService;
+import com.example.shared.metrics.QueryBudget;
 import java.time.LocalDate;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +16,8 @@ import org.springframework.web.bind.annotation.*;
 public class LibraryController {
   private final LibraryService libraryService;
 
+  // Отчёт собирается двумя запросами при любом размере библиотеки
+  @QueryBudget(5)
   @PreAuthorize("hasRole('LIBRARIAN')")
   @GetMapping("/libraryReport/{libraryId}")
   public ResponseEntity<List<LibraryReportResponse>> getAllReport(
@@ -20,7 +20,7 @@ public class UserController {
     if (authentication != null) {
 
       Jwt jwt = (Jwt) authentication.getPrincipal();
-      CustomUserDetails userDetails = JwtTokenUtil.parseToken(jwt.getTokenValue());
+      CustomUserDetails userDetails = JwtTokenUtil.fromJwt(jwt);
 
       // Создание ответа с данными пользователя
       return new UserInfoResponse(
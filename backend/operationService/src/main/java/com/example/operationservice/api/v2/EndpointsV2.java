@@ -3,5 +3,6 @@ package com.example.operationservice.api.v2;
 public interface EndpointsV2 {
   String TRANSACTIONS = "/api/v2/transactions";
   String RATINGS = "/api/v2/ratings";
+  String HISTORY = "/api/v2/history";
 }
 
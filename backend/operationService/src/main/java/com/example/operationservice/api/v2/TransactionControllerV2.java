@@ -3,6 +3,8 @@ package com.example.operationservice.api.v2;
 import com.example.operationservice.dto.*;
 import com.example.operationservice.model.Status;
 import com.example.operationservice.service.TransactionService;
+import com.example.shared.dto.CursorPageResponse;
+import com.example.shared.metrics.QueryBudget;
 import jakarta.validation.Valid;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
@@ -17,10 +19,25 @@ import org.springframework.web.bind.annotation.*;
 public class TransactionControllerV2 {
   private final TransactionService transactionService;
 
+  // Очередь заявок строится одним запросом-проекцией независимо от числа заявок
+  @QueryBudget(1)
   @PreAuthorize("hasRole('LIBRARIAN')")
   @GetMapping
-  public ResponseEntity<List<TransactionResponse>> getTransactions(@RequestParam Long libraryId) {
-    return ResponseEntity.ok(transactionService.getRequests(libraryId));
+  public ResponseEntity<List<TransactionResponse>> getTransactions(
+      @RequestParam Long libraryId,
+      @RequestParam(required = false) Integer page,
+      @RequestParam(required = false) Integer size) {
+    return ResponseEntity.ok(transactionService.getRequests(libraryId, page, size));
+  }
+
+  @QueryBudget(1)
+  @PreAuthorize("hasRole('LIBRARIAN')")
+  @GetMapping("/scroll")
+  public ResponseEntity<CursorPageResponse<TransactionResponse>> scrollTransactions(
+      @RequestParam Long libraryId,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int limit) {
+    return ResponseEntity.ok(transactionService.scrollRequests(libraryId, cursor, limit));
   }
 
   @GetMapping("/reading-status")
@@ -0,0 +1,22 @@
+package com.example.operationservice.api.v2;
+
+import com.example.operationservice.model.UnifiedData;
+import com.example.operationservice.service.UnifiedDataService;
+import com.example.shared.dto.CursorPageResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping(EndpointsV2.HISTORY)
+@RequiredArgsConstructor
+public class UnifiedDataControllerV2 {
+  private final UnifiedDataService unifiedDataService;
+
+  @GetMapping
+  public ResponseEntity<CursorPageResponse<UnifiedData>> getHistory(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int limit) {
+    return ResponseEntity.ok(unifiedDataService.getActivityFeed(cursor, limit));
+  }
+}
@@ -0,0 +1,74 @@
+package com.example.operationservice.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// LRU разобранных токенов по хэшу поверх своего парсера; запись живёт не дольше exp токена.
+// Кэш принадлежит парсеру: токен, проверенный одним ключом, не достаётся другому
+final class CachedTokenParser {
+
+  private final JwtParser parser;
+  private final Map<String, CachedUserDetails> cache;
+
+  CachedTokenParser(JwtParser parser, int maxSize) {
+    this.parser = parser;
+    this.cache =
+        Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+              @Override
+              protected boolean removeEldestEntry(Map.Entry<String, CachedUserDetails> eldest) {
+                return size() > maxSize;
+              }
+            });
+  }
+
+  CustomUserDetails parse(String token) {
+    String key = hash(token);
+    long now = System.currentTimeMillis();
+
+    CachedUserDetails cached = cache.get(key);
+    if (cached != null) {
+      if (cached.expiresAt > now) {
+        return cached.userDetails;
+      }
+      cache.remove(key);
+    }
+
+    Claims claims = parser.parseSignedClaims(token).getPayload();
+    CustomUserDetails userDetails = JwtTokenUtil.toUserDetails(claims);
+
+    Date expiration = claims.getExpiration();
+    if (expiration != null) {
+      cache.put(key, new CachedUserDetails(userDetails, expiration.getTime()));
+    }
+    return userDetails;
+  }
+
+  private static String hash(String token) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return Base64.getEncoder()
+          .encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private static final class CachedUserDetails {
+    private final CustomUserDetails userDetails;
+    private final long expiresAt;
+
+    private CachedUserDetails(CustomUserDetails userDetails, long expiresAt) {
+      this.userDetails = userDetails;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -1,44 +1,74 @@
 package com.example.operationservice.config;
 
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 public class JwtTokenUtil {
 
+  private static final String DEFAULT_PUBLIC_KEY =
+      "MIIBIjANBgkqhkiG9w0BAQEFAAOCAQ8AMIIBCgKCAQEAsEW5Ii21UcdRVU0yk1MpqKbrclGG5A4TZopMnLX51DpPMn2SkDUNz804a5biWIujSR6UXoHZ5LvEDtyYAUp3Y4PSAk+3whRaYdeHkZKSOixgOSQUyQzOIKbd3l1ASKIHIeAhJH+2v8e7Rrl/C93N3XrFOespGcHg8xIxQVMzhEYRmSbCS4VDEGltViYFXseAleCCAzgk9KPOQ4NnMnUGiWdyFnYeqMhiua4QLxNDzSq8y6Hy6DnU6K1ZrKV1eZXq3TJN1WlCTMDajiygrosAn+p5/7MKo7nov1VMpBbFZmBFfbHgsuVbc9l2Ztas4SiHpO5NLnvKiLTuTVWPQZWUtwIDAQAB";
+
+  // Ключ реалма можно переопределить, например для нагрузочного теста со своим издателем токенов
+  private static final String PUBLIC_KEY =
+      Optional.ofNullable(System.getenv("JWT_PUBLIC_KEY")).orElse(DEFAULT_PUBLIC_KEY);
+
+  private static final int CACHE_MAX_SIZE = 10_000;
+
+  private static final String REQUEST_ATTRIBUTE = JwtTokenUtil.class.getName() + ".USER_DETAILS";
+
+  // Ключ и парсер потокобезопасны, строим один раз
+  private static final CachedTokenParser PARSER =
+      new CachedTokenParser(Jwts.parser().verifyWith(buildPublicKey()).build(), CACHE_MAX_SIZE);
+
   public static CustomUserDetails parseToken(String token) {
-    final String publicKey =
-        "MIIBIjANBgkqhkiG9w0BAQEFAAOCAQ8AMIIBCgKCAQEAsEW5Ii21UcdRVU0yk1MpqKbrclGG5A4TZopMnLX51DpPMn2SkDUNz804a5biWIujSR6UXoHZ5LvEDtyYAUp3Y4PSAk+3whRaYdeHkZKSOixgOSQUyQzOIKbd3l1ASKIHIeAhJH+2v8e7Rrl/C93N3XrFOespGcHg8xIxQVMzhEYRmSbCS4VDEGltViYFXseAleCCAzgk9KPOQ4NnMnUGiWdyFnYeqMhiua4QLxNDzSq8y6Hy6DnU6K1ZrKV1eZXq3TJN1WlCTMDajiygrosAn+p5/7MKo7nov1VMpBbFZmBFfbHgsuVbc9l2Ztas4SiHpO5NLnvKiLTuTVWPQZWUtwIDAQAB";
+    RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+    if (requestAttributes != null
+        && requestAttributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+            instanceof ParsedToken parsed
+        && parsed.token.equals(token)) {
+      return parsed.userDetails;
+    }
 
-    byte[] keyBytes = Base64.getDecoder().decode(publicKey);
-    X509EncodedKeySpec keySpec = new X509EncodedKeySpec(keyBytes);
-    PublicKey publicKeyNew = null;
-    try {
-      KeyFactory keyFactory = KeyFactory.getInstance("RSA");
-      publicKeyNew = keyFactory.generatePublic(keySpec);
-    } catch (NoSuchAlgorithmException | InvalidKeySpecException ex) {
-      throw new RuntimeException();
+    CustomUserDetails userDetails = PARSER.parse(token);
+
+    if (requestAttributes != null) {
+      requestAttributes.setAttribute(
+          REQUEST_ATTRIBUTE, new ParsedToken(token, userDetails), RequestAttributes.SCOPE_REQUEST);
     }
-    Claims claims =
-        Jwts.parser().verifyWith(publicKeyNew).build().parseSignedClaims(token).getPayload();
-
-    String id = claims.get("sub", String.class);
-    String username = claims.get("preferred_username", String.class);
-    String firstName = claims.get("given_name", String.class);
-    String lastName = claims.get("family_name", String.class);
-    String email = claims.get("email", String.class);
+    return userDetails;
+  }
+
+  // Подпись Jwt уже проверена resource server'ом, повторная RSA-проверка не нужна
+  public static CustomUserDetails fromJwt(Jwt jwt) {
+    return toUserDetails(jwt.getClaims());
+  }
+
+  static CustomUserDetails toUserDetails(Map<String, Object> claims) {
+    String id = (String) claims.get("sub");
+    String username = (String) claims.get("preferred_username");
+    String firstName = (String) claims.get("given_name");
+    String lastName = (String) claims.get("family_name");
+    String email = (String) claims.get("email");
     Map<String, Object> realmAccess = (Map<String, Object>) claims.get("realm_access");
 
-    List<String> roles = (List<String>) realmAccess.get("roles");
+    List<String> roles = new ArrayList<>();
+    if (realmAccess != null && realmAccess.get("roles") != null) {
+      roles.addAll((List<String>) realmAccess.get("roles"));
+    }
 
     if (roles.contains("ROLE_ADMIN")) {
       roles.add("ROLE_LIBRARIAN");
@@ -53,4 +83,25 @@ public class JwtTokenUtil {
 
     return new CustomUserDetails(id, username, firstName, lastName, email, authorities);
   }
+
+  private static PublicKey buildPublicKey() {
+    byte[] keyBytes = Base64.getDecoder().decode(PUBLIC_KEY);
+    X509EncodedKeySpec keySpec = new X509EncodedKeySpec(keyBytes);
+    try {
+      KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+      return keyFactory.generatePublic(keySpec);
+    } catch (NoSuchAlgorithmException | InvalidKeySpecException ex) {
+      throw new IllegalStateException("Не удалось загрузить публичный ключ JWT", ex);
+    }
+  }
+
+  private static final class ParsedToken {
+    private final String token;
+    private final CustomUserDetails userDetails;
+
+    private ParsedToken(String token, CustomUserDetails userDetails) {
+      this.token = token;
+      this.userDetails = userDetails;
+    }
+  }
 }
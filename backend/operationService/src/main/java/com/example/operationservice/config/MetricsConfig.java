@@ -0,0 +1,31 @@
+package com.example.operationservice.config;
+
+import com.example.shared.metrics.QueryCountFilter;
+import com.example.shared.metrics.QueryCountInspector;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+  @Bean
+  public QueryCountInspector queryCountInspector() {
+    return new QueryCountInspector();
+  }
+
+  @Bean
+  public QueryCountFilter queryCountFilter(
+      QueryCountInspector queryCountInspector, MeterRegistry meterRegistry) {
+    return new QueryCountFilter(queryCountInspector, meterRegistry);
+  }
+
+  // Все запросы Hibernate проходят через счётчик, см. QueryCountFilter
+  @Bean
+  public HibernatePropertiesCustomizer queryCountCustomizer(
+      QueryCountInspector queryCountInspector) {
+    return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryCountInspector);
+  }
+}
@@ -3,14 +3,26 @@ package com.example.operationservice.dto.mapper;
 import com.example.operationservice.dto.BookTransactionResponse;
 import com.example.operationservice.dto.TransactionResponse;
 import com.example.operationservice.model.BookTransaction;
+import com.example.operationservice.model.PendingRequestView;
 import com.example.shared.dto.AuthorResponse;
-import com.example.shared.model.Author;
-import java.util.stream.Collectors;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.stereotype.Component;
 
 @Component
 public class TransactionMapper {
 
+  private static final ObjectReader AUTHORS_READER =
+      JsonMapper.builder()
+          .addModule(new JavaTimeModule())
+          .build()
+          .readerFor(new TypeReference<List<AuthorResponse>>() {});
+
   public BookTransactionResponse toBookTransactionResponse(BookTransaction transaction) {
     BookTransactionResponse response = new BookTransactionResponse();
     response.setId(transaction.getId());
@@ -25,29 +37,25 @@ public class TransactionMapper {
     return response;
   }
 
-  public TransactionResponse toTransactionResponse(BookTransaction transaction) {
+  public TransactionResponse toTransactionResponse(PendingRequestView request) {
     TransactionResponse response = new TransactionResponse();
-    response.setId(transaction.getId());
-    response.setInventoryId(transaction.getBookCopy().getInventoryNumber());
-    response.setTitle(transaction.getBookCopy().getBook().getTitle());
-    response.setStatus(transaction.getStatus().toString());
-
-    if (transaction.getBookCopy().getBook().getAuthors() != null) {
-      response.setAuthors(
-          transaction.getBookCopy().getBook().getAuthors().stream()
-              .map(this::toAuthorResponse)
-              .collect(Collectors.toList()));
-    }
-
+    response.setId(request.getId());
+    response.setInventoryId(request.getInventoryNumber());
+    response.setTitle(request.getTitle());
+    response.setStatus(request.getStatus());
+    response.setAuthors(readAuthors(request.getAuthors()));
     return response;
   }
 
-  private AuthorResponse toAuthorResponse(Author author) {
-    AuthorResponse response = new AuthorResponse();
-    response.setId(author.getId());
-    response.setName(author.getName());
-    response.setSurname(author.getSurname());
-    response.setBirthDate(author.getBirthDate());
-    return response;
+  // json_agg без строк возвращает NULL - книга без авторов отдаётся с пустым списком
+  private static List<AuthorResponse> readAuthors(String json) {
+    if (json == null) {
+      return new ArrayList<>();
+    }
+    try {
+      return AUTHORS_READER.readValue(json);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Malformed authors JSON: " + json, e);
+    }
   }
 }
@@ -0,0 +1,149 @@
+package com.example.operationservice.kafka;
+
+import com.example.operationservice.model.EmailOutbox;
+import com.example.operationservice.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Публикация идёт вне транзакции: короткая транзакция забирает batch, сдвигая next_attempt_at
+// на время отправки, вторая удаляет опубликованные письма и откладывает неудачные.
+// Блокировки строк не держатся, пока продюсер ждёт брокер
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmailOutboxRelay implements MeterBinder {
+
+  private final EmailOutboxRepository emailOutboxRepository;
+  private final KafkaProducer kafkaProducer;
+  private final TransactionTemplate transactionTemplate;
+
+  // Возраст самого старого неотправленного письма на последнем проходе
+  private final AtomicLong lagMs = new AtomicLong();
+  private final AtomicLong parkedCount = new AtomicLong();
+
+  @Value("${email-outbox.batch-size:100}")
+  private int batchSize;
+
+  // Больше delivery.timeout.ms продюсера: к этому моменту каждая отправка уже завершена
+  @Value("${email-outbox.send-timeout-ms:65000}")
+  private long sendTimeoutMs;
+
+  @Value("${email-outbox.max-attempts:10}")
+  private int maxAttempts;
+
+  @Value("${email-outbox.retry-backoff-ms:1000}")
+  private long retryBackoffMs;
+
+  @Value("${email-outbox.max-retry-backoff-ms:600000}")
+  private long maxRetryBackoffMs;
+
+  @Scheduled(fixedDelayString = "${email-outbox.poll-interval-ms:1000}")
+  public void relay() {
+    List<EmailOutbox> batch = transactionTemplate.execute(status -> claimNextBatch());
+    if (batch == null || batch.isEmpty()) {
+      lagMs.set(0);
+      return;
+    }
+    // Batch упорядочен по id, первое письмо - самое старое в outbox
+    lagMs.set(Duration.between(batch.get(0).getCreatedAt(), LocalDateTime.now()).toMillis());
+
+    // Отправляем весь batch сразу, продюсер сам соберёт его в запросы к брокеру
+    List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+    for (EmailOutbox message : batch) {
+      sends.add(kafkaProducer.sendMessage(message.getMessageKey(), message.getPayload()));
+    }
+
+    long deadline = System.currentTimeMillis() + sendTimeoutMs;
+    List<Long> published = new ArrayList<>(batch.size());
+    List<EmailOutbox> failed = new ArrayList<>();
+    for (int i = 0; i < batch.size(); i++) {
+      EmailOutbox message = batch.get(i);
+      try {
+        long remaining = Math.max(0, deadline - System.currentTimeMillis());
+        sends.get(i).get(remaining, TimeUnit.MILLISECONDS);
+        published.add(message.getId());
+      } catch (ExecutionException e) {
+        failed.add(message);
+      } catch (TimeoutException e) {
+        // Исход неизвестен: письмо вернётся в очередь, когда истечёт захват
+        log.warn("Email outbox relay: no broker ack for message id={}", message.getId());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+
+    transactionTemplate.executeWithoutResult(status -> complete(published, failed));
+    if (published.size() < batch.size()) {
+      log.warn(
+          "Email outbox relay: published {} of {} messages, the rest will be retried",
+          published.size(),
+          batch.size());
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    TimeGauge.builder("email.outbox.lag", lagMs, TimeUnit.MILLISECONDS, AtomicLong::get)
+        .description("Age of the oldest email request waiting in the outbox")
+        .register(registry);
+    FunctionCounter.builder("email.outbox.parked", parkedCount, AtomicLong::get)
+        .description("Email requests left in the outbox after max-attempts failed sends")
+        .register(registry);
+  }
+
+  // Попытка засчитывается при захвате: если экземпляр упадёт во время отправки,
+  // письмо вернётся в очередь после send-timeout-ms
+  private List<EmailOutbox> claimNextBatch() {
+    LocalDateTime now = LocalDateTime.now();
+    List<EmailOutbox> batch = emailOutboxRepository.lockNextBatch(now, maxAttempts, batchSize);
+    LocalDateTime claimedUntil = now.plus(Duration.ofMillis(sendTimeoutMs));
+    for (EmailOutbox message : batch) {
+      message.setAttempts(message.getAttempts() + 1);
+      message.setNextAttemptAt(claimedUntil);
+    }
+    return batch;
+  }
+
+  private void complete(List<Long> published, List<EmailOutbox> failed) {
+    if (!published.isEmpty()) {
+      emailOutboxRepository.deleteAllByIdInBatch(published);
+    }
+    LocalDateTime now = LocalDateTime.now();
+    for (EmailOutbox message : failed) {
+      if (message.getAttempts() >= maxAttempts) {
+        parkedCount.incrementAndGet();
+        log.error(
+            "Email outbox relay: giving up on message id={} key={} after {} attempts",
+            message.getId(),
+            message.getMessageKey(),
+            message.getAttempts());
+      }
+      emailOutboxRepository.rescheduleById(
+          message.getId(), now.plus(Duration.ofMillis(backoffMs(message.getAttempts()))));
+    }
+  }
+
+  // 1, 2, 4, ... паузы retry-backoff-ms, не больше max-retry-backoff-ms
+  private long backoffMs(int attempts) {
+    int doublings = Math.min(Math.max(attempts - 1, 0), 30);
+    return Math.min(maxRetryBackoffMs, retryBackoffMs << doublings);
+  }
+}
@@ -1,16 +1,67 @@
 package com.example.operationservice.kafka;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
-public class KafkaProducer {
+public class KafkaProducer implements MeterBinder {
+
+  private static final String TOPIC = "email_requests";
 
   private final KafkaTemplate<String, String> kafkaTemplate;
 
-  public void sendMessage(String message) {
-    kafkaTemplate.send("email_requests", message);
+  private final AtomicLong sentCount = new AtomicLong();
+  private final AtomicLong failedCount = new AtomicLong();
+
+  public CompletableFuture<SendResult<String, String>> sendMessage(String message) {
+    return sendMessage(null, message);
+  }
+
+  // Ключ (id транзакции) сохраняет порядок писем по одной брони внутри партиции.
+  // Повторов здесь нет: их делает продюсер (delivery.timeout.ms), а неудачу - EmailOutboxRelay
+  public CompletableFuture<SendResult<String, String>> sendMessage(String key, String message) {
+    CompletableFuture<SendResult<String, String>> future;
+    try {
+      future = kafkaTemplate.send(TOPIC, key, message);
+    } catch (RuntimeException ex) {
+      future = CompletableFuture.failedFuture(ex);
+    }
+    return future.whenComplete(
+        (result, ex) -> {
+          if (ex == null) {
+            sentCount.incrementAndGet();
+          } else {
+            failedCount.incrementAndGet();
+            log.warn("Failed to publish email request key={}: {}", key, ex.getMessage());
+          }
+        });
+  }
+
+  public long getSentCount() {
+    return sentCount.get();
+  }
+
+  public long getFailedCount() {
+    return failedCount.get();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("email.producer.sent", sentCount, AtomicLong::get)
+        .description("Email requests acknowledged by the broker")
+        .register(registry);
+    FunctionCounter.builder("email.producer.failed", failedCount, AtomicLong::get)
+        .description("Email request sends not acknowledged within delivery.timeout.ms")
+        .register(registry);
   }
 }
@@ -1,5 +1,6 @@
 package com.example.operationservice.kafka;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.HashMap;
 import java.util.Map;
 import org.apache.kafka.clients.admin.NewTopic;
@@ -10,29 +11,50 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
 
 @Configuration
 public class KafkaProducerConfig {
 
+  // Несколько партиций, чтобы emailService мог читать топик параллельно
   @Bean
   public NewTopic newTopic() {
-    return new NewTopic("email_requests", 1, (short) 1);
+    return new NewTopic("email_requests", 3, (short) 1);
   }
 
   @Bean
   public ProducerFactory<String, String> producerFactory(
-      @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers) {
+      @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+      @Value("${spring.kafka.producer.acks:all}") String acks,
+      @Value("${spring.kafka.producer.batch-size:65536}") int batchSize,
+      @Value("${spring.kafka.producer.compression-type:lz4}") String compressionType,
+      @Value("${spring.kafka.producer.properties.linger.ms:20}") int lingerMs,
+      @Value("${spring.kafka.producer.properties.enable.idempotence:true}") boolean idempotence,
+      @Value("${spring.kafka.producer.properties.delivery.timeout.ms:60000}") int deliveryTimeoutMs,
+      MeterRegistry meterRegistry) {
     Map<String, Object> props = new HashMap<>();
     props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
     props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
     props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-    return new DefaultKafkaProducerFactory<>(props);
+    // Письма копятся в batch до linger.ms вместо отдельного запроса на каждое
+    props.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+    props.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+    props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+    props.put(ProducerConfig.ACKS_CONFIG, acks);
+    props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, idempotence);
+    // Повторы при ошибках брокера делает сам продюсер в пределах delivery.timeout.ms;
+    // с idempotence они не дублируют записи, в отличие от повторной отправки из приложения
+    props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, deliveryTimeoutMs);
+    DefaultKafkaProducerFactory<String, String> factory = new DefaultKafkaProducerFactory<>(props);
+    // Клиентские метрики продюсера: record-error-rate, request-latency, buffer и т.д.
+    factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+    return factory;
   }
 
   @Bean
   public KafkaTemplate<String, String> kafkaTemplate(
-      @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers) {
-    return new KafkaTemplate<>(producerFactory(bootstrapServers));
+      ProducerFactory<String, String> producerFactory) {
+    return new KafkaTemplate<>(producerFactory);
   }
 }
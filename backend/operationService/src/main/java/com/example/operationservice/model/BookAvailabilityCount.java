@@ -0,0 +1,11 @@
+package com.example.operationservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class BookAvailabilityCount {
+  private Long bookId;
+  private Long count;
+}
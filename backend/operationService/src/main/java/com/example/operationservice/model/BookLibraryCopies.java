@@ -0,0 +1,40 @@
+package com.example.operationservice.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+// Счётчики экземпляров книги в библиотеке (V14); пишет их только BookRepository.adjustCopyCounters
+@Entity
+@Immutable
+@Table(name = "book_library_copies")
+@IdClass(BookLibraryCopies.Key.class)
+@Getter
+@NoArgsConstructor
+public class BookLibraryCopies {
+  @Id
+  @Column(name = "book_id")
+  private Long bookId;
+
+  @Id
+  @Column(name = "library_id")
+  private Long libraryId;
+
+  @Column(name = "total_copies", nullable = false)
+  private Integer totalCopies;
+
+  @Column(name = "available_copies", nullable = false)
+  private Integer availableCopies;
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Key implements Serializable {
+    private Long bookId;
+    private Long libraryId;
+  }
+}
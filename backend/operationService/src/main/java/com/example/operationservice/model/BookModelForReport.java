@@ -25,7 +25,10 @@ public class BookModelForReport {
   private Float rating;
 
   public static BookModelForReport toModel(BookCopy bookCopy) {
-    Book book = bookCopy.getBook();
+    return toModel(bookCopy.getBook());
+  }
+
+  public static BookModelForReport toModel(Book book) {
     BookModelForReport model = new BookModelForReport();
     model.setId(book.getId());
     model.setTitle(book.getTitle());
@@ -0,0 +1,40 @@
+package com.example.operationservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "email_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailOutbox {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "message_key")
+  private String messageKey;
+
+  @Column(columnDefinition = "TEXT", nullable = false)
+  private String payload;
+
+  @Column(nullable = false)
+  private Integer attempts = 0;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  // Раньше этого момента EmailOutboxRelay письмо не берёт: идёт отправка или пауза перед повтором
+  @Column(name = "next_attempt_at", nullable = false)
+  private LocalDateTime nextAttemptAt;
+
+  @PrePersist
+  protected void onCreate() {
+    createdAt = LocalDateTime.now();
+    nextAttemptAt = createdAt;
+  }
+}
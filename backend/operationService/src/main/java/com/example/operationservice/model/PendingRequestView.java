@@ -0,0 +1,14 @@
+package com.example.operationservice.model;
+
+// Строка очереди заявок библиотекаря; authors - JSON-массив авторов книги, null если их нет
+public interface PendingRequestView {
+  Long getId();
+
+  String getInventoryNumber();
+
+  String getTitle();
+
+  String getStatus();
+
+  String getAuthors();
+}
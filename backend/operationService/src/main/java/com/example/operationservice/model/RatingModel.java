@@ -33,7 +33,7 @@ public class RatingModel {
       if (auth != null && auth.getPrincipal() != null) {
         if (auth.getPrincipal() instanceof Jwt) {
           Jwt jwt = (Jwt) auth.getPrincipal();
-          userDetails = JwtTokenUtil.parseToken(jwt.getTokenValue());
+          userDetails = JwtTokenUtil.fromJwt(jwt);
         } else if (auth.getPrincipal() instanceof CustomUserDetails) {
           userDetails = (CustomUserDetails) auth.getPrincipal();
         }
@@ -1,9 +1,64 @@
 package com.example.operationservice.repository;
 
 import com.example.shared.model.Book;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {}
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
+
+  // Атомарно добавляет оценку в агрегат книги (SET использует значения строки до обновления)
+  @Modifying
+  @Query(
+      value =
+          """
+              UPDATE book
+              SET rating_sum = rating_sum + :ratingValue,
+                  rating_count = rating_count + 1,
+                  average_rating = CAST(rating_sum + :ratingValue AS REAL) / (rating_count + 1)
+              WHERE id = :bookId
+          """,
+      nativeQuery = true)
+  int addRating(@Param("bookId") Long bookId, @Param("ratingValue") int ratingValue);
+
+  // Атомарно сдвигает счётчики экземпляров книги: общие и в библиотеке (V14)
+  @Modifying
+  @Query(
+      value =
+          """
+              WITH per_library AS (
+                  INSERT INTO book_library_copies
+                      (book_id, library_id, total_copies, available_copies)
+                  VALUES (:bookId, :libraryId, :totalDelta, :availableDelta)
+                  ON CONFLICT (book_id, library_id) DO UPDATE
+                  SET total_copies = book_library_copies.total_copies + EXCLUDED.total_copies,
+                      available_copies =
+                          book_library_copies.available_copies + EXCLUDED.available_copies
+              )
+              UPDATE book
+              SET total_copies = total_copies + :totalDelta,
+                  available_copies = available_copies + :availableDelta
+              WHERE id = :bookId
+          """,
+      nativeQuery = true)
+  int adjustCopyCounters(
+      @Param("bookId") Long bookId,
+      @Param("libraryId") Long libraryId,
+      @Param("totalDelta") int totalDelta,
+      @Param("availableDelta") int availableDelta);
+
+  @Query(
+      "SELECT DISTINCT b FROM Book b "
+          + "LEFT JOIN FETCH b.authors "
+          + "LEFT JOIN FETCH b.genre "
+          + "LEFT JOIN FETCH b.theme "
+          + "LEFT JOIN FETCH b.publisher "
+          + "WHERE b.id IN :ids")
+  List<Book> findAllWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+}
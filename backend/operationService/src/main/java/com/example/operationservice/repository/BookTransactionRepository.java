@@ -1,7 +1,11 @@
 package com.example.operationservice.repository;
 
 import com.example.operationservice.model.BookTransaction;
+import com.example.operationservice.model.PendingRequestView;
+import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,11 +14,34 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface BookTransactionRepository extends JpaRepository<BookTransaction, Long> {
 
+  // Очередь заявок библиотеки одним запросом: авторы собираются в JSON на стороне БД,
+  // сущности и их ленивые связи не загружаются. Keyset по id, afterId = 0 - с начала очереди
   @Query(
-      "SELECT bt FROM BookTransaction bt "
-          + "JOIN bt.bookCopy bc "
-          + "WHERE bc.library.id = :libraryId AND bt.status = 'PENDING'")
-  List<BookTransaction> findUnborrowedTransactionsByLibraryId(@Param("libraryId") Long libraryId);
+      value =
+          """
+              SELECT bt.id AS "id",
+                     bc.inventory_number AS "inventoryNumber",
+                     b.title AS "title",
+                     bt.status AS "status",
+                     CAST((SELECT json_agg(json_build_object(
+                                      'id', a.id,
+                                      'name', a.name,
+                                      'surname', a.surname,
+                                      'birthDate', a.birth_date) ORDER BY a.id)
+                           FROM author_books ab
+                           JOIN author a ON a.id = ab.author_id
+                           WHERE ab.book_id = b.id) AS TEXT) AS "authors"
+              FROM book_transaction bt
+              JOIN book_copy bc ON bc.id = bt.book_copy_id
+              JOIN book b ON b.id = bc.book_id
+              WHERE bc.library_id = :libraryId
+                AND bt.status = 'PENDING'
+                AND bt.id > :afterId
+              ORDER BY bt.id
+          """,
+      nativeQuery = true)
+  List<PendingRequestView> findPendingRequestsByLibraryIdAfter(
+      @Param("libraryId") Long libraryId, @Param("afterId") Long afterId, Pageable pageable);
 
   @Query(
       "SELECT bt FROM BookTransaction bt "
@@ -24,4 +51,20 @@ public interface BookTransactionRepository extends JpaRepository<BookTransaction
   List<BookTransaction> findByBookCopyIdAndStatusApproved(@Param("bookCopyId") Long bookCopyId);
 
   List<BookTransaction> findByUserId(String userId);
+
+  @EntityGraph(attributePaths = {"bookCopy", "bookCopy.book", "bookCopy.library"})
+  List<BookTransaction> findByUserIdOrderByCreationDateDescIdDesc(
+      String userId, Pageable pageable);
+
+  @EntityGraph(attributePaths = {"bookCopy", "bookCopy.book", "bookCopy.library"})
+  @Query(
+      "SELECT bt FROM BookTransaction bt "
+          + "WHERE bt.userId = :userId "
+          + "AND (bt.creationDate < :time OR (bt.creationDate = :time AND bt.id < :id)) "
+          + "ORDER BY bt.creationDate DESC, bt.id DESC")
+  List<BookTransaction> findByUserIdBefore(
+      @Param("userId") String userId,
+      @Param("time") LocalDateTime time,
+      @Param("id") Long id,
+      Pageable pageable);
 }
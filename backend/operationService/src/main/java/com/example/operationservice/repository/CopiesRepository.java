@@ -1,8 +1,13 @@
 package com.example.operationservice.repository;
 
+import com.example.operationservice.model.BookAvailabilityCount;
 import com.example.operationservice.model.BookCopy;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -10,7 +15,49 @@ public interface CopiesRepository extends JpaRepository<BookCopy, Long> {
 
   List<BookCopy> findByBookIdAndLibraryId(Long bookId, Long libraryId);
 
+  // Одна свободная копия без активной брони; занятые другими транзакциями строки пропускаются
+  @Query(
+      value =
+          """
+              SELECT bc.*
+              FROM book_copy bc
+              WHERE bc.book_id = :bookId
+                AND bc.library_id = :libraryId
+                AND bc.available = true
+                AND NOT EXISTS (
+                    SELECT 1 FROM book_transaction bt
+                    WHERE bt.book_copy_id = bc.id AND bt.status = 'PENDING')
+              ORDER BY bc.id
+              LIMIT 1
+              FOR UPDATE OF bc SKIP LOCKED
+          """,
+      nativeQuery = true)
+  Optional<BookCopy> claimAvailableCopy(
+      @Param("bookId") Long bookId, @Param("libraryId") Long libraryId);
+
   List<BookCopy> findByLibraryId(Long libraryId);
 
   List<BookCopy> findByInventoryNumber(String inventoryNumber);
+
+  // Готовые счётчики по библиотеке (V14) вместо агрегации по book_copy
+  @Query(
+      "SELECT new com.example.operationservice.model.BookAvailabilityCount("
+          + "c.bookId, CAST(c.availableCopies AS Long)) "
+          + "FROM BookLibraryCopies c "
+          + "WHERE c.libraryId = :libraryId AND c.availableCopies > 0 "
+          + "ORDER BY c.bookId")
+  List<BookAvailabilityCount> countAvailableByLibraryId(@Param("libraryId") Long libraryId);
+
+  // Копия недоступна на момент :at, если выдана раньше и не возвращена к этому моменту
+  @Query(
+      "SELECT new com.example.operationservice.model.BookAvailabilityCount(bc.book.id, COUNT(bc)) "
+          + "FROM BookCopy bc "
+          + "WHERE bc.library.id = :libraryId AND NOT EXISTS ("
+          + "  SELECT bt.id FROM BookTransaction bt "
+          + "  WHERE bt.bookCopy = bc AND bt.borrowDate < :at "
+          + "    AND (bt.returnDate IS NULL OR bt.returnDate >= :at)) "
+          + "GROUP BY bc.book.id "
+          + "ORDER BY bc.book.id")
+  List<BookAvailabilityCount> countAvailableByLibraryIdAt(
+      @Param("libraryId") Long libraryId, @Param("at") LocalDateTime at);
 }
@@ -0,0 +1,31 @@
+package com.example.operationservice.repository;
+
+import com.example.operationservice.model.EmailOutbox;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+  // SKIP LOCKED позволяет нескольким экземплярам сервиса разбирать outbox параллельно;
+  // письма с исчерпанными попытками не выбираются
+  @Query(
+      value =
+          "SELECT * FROM email_outbox "
+              + "WHERE next_attempt_at <= :now AND attempts < :maxAttempts "
+              + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+      nativeQuery = true)
+  List<EmailOutbox> lockNextBatch(
+      @Param("now") LocalDateTime now,
+      @Param("maxAttempts") int maxAttempts,
+      @Param("limit") int limit);
+
+  @Modifying
+  @Query("UPDATE EmailOutbox e SET e.nextAttemptAt = :nextAttemptAt WHERE e.id = :id")
+  void rescheduleById(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+}
@@ -1,10 +1,30 @@
 package com.example.operationservice.repository;
 
 import com.example.operationservice.model.Rating;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface RatingRepository extends JpaRepository<Rating, Long> {
   Optional<List<Rating>> findAllByBookId(Long bookId);
+
+  @EntityGraph(attributePaths = "book")
+  List<Rating> findByUserIdOrderByTimeDescIdDesc(String userId, Pageable pageable);
+
+  @EntityGraph(attributePaths = "book")
+  @Query(
+      "SELECT r FROM Rating r "
+          + "WHERE r.userId = :userId "
+          + "AND (r.time < :time OR (r.time = :time AND r.id < :id)) "
+          + "ORDER BY r.time DESC, r.id DESC")
+  List<Rating> findByUserIdBefore(
+      @Param("userId") String userId,
+      @Param("time") LocalDateTime time,
+      @Param("id") Long id,
+      Pageable pageable);
 }
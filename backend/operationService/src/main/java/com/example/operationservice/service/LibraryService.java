@@ -1,17 +1,19 @@
 package com.example.operationservice.service;
 
-import com.example.operationservice.model.BookCopy;
+import com.example.operationservice.model.BookAvailabilityCount;
 import com.example.operationservice.model.BookModelForReport;
-import com.example.operationservice.model.BookTransaction;
 import com.example.operationservice.model.LibraryReportResponse;
-import com.example.operationservice.repository.BookTransactionRepository;
+import com.example.operationservice.repository.BookRepository;
 import com.example.operationservice.repository.CopiesRepository;
 import com.example.shared.exception.ResourceNotFoundException;
+import com.example.shared.model.Book;
+import io.micrometer.core.annotation.Timed;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,63 +22,40 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class LibraryService {
   private final CopiesRepository copiesRepository;
-  private final BookTransactionRepository bookTransactionRepository;
+  private final BookRepository bookRepository;
 
-  @Transactional
+  @Timed(value = "library.report", histogram = true)
+  @Transactional(readOnly = true)
   public List<LibraryReportResponse> getReport(Long libraryId, LocalDate date) {
+    // Подсчет доступных копий по книгам выполняется в БД одним запросом
+    List<BookAvailabilityCount> counts =
+        date == null
+            ? copiesRepository.countAvailableByLibraryId(libraryId)
+            : copiesRepository.countAvailableByLibraryIdAt(libraryId, date.atStartOfDay());
 
-    List<BookCopy> bookCopies = copiesRepository.findByLibraryId(libraryId);
-    List<BookTransaction> bookTransactions = bookTransactionRepository.findAll();
-
-    Map<Long, Integer> bookCountMap = new HashMap<>();
-    if (date == null) {
-
-      for (BookCopy bookCopy : bookCopies) {
-        if (bookCopy.getAvailable()) {
-          Long bookId = bookCopy.getBook().getId();
-          bookCountMap.put(bookId, bookCountMap.getOrDefault(bookId, 0) + 1);
-        }
-      }
-    } else {
-      for (BookCopy bookCopy : bookCopies) {
-        Long bookId = bookCopy.getBook().getId();
-        boolean f = Boolean.TRUE;
-        for (BookTransaction bookTransaction : bookTransactions) {
-          if (bookTransaction.getBookCopy() == bookCopy) {
-            if (bookTransaction.getBorrowDate() != null) {
-              if (bookTransaction.getBorrowDate().toLocalDate().isBefore(date)
-                  && bookTransaction.getReturned() == null) {
-                f = Boolean.FALSE;
-                break;
-              }
-            }
-          }
-        }
-        if (f) {
-
-          bookCountMap.put(bookId, bookCountMap.getOrDefault(bookId, 0) + 1);
-        }
-      }
+    if (counts.isEmpty()) {
+      return new ArrayList<>();
     }
 
+    Map<Long, Book> books =
+        bookRepository
+            .findAllWithDetailsByIdIn(
+                counts.stream().map(BookAvailabilityCount::getBookId).collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.toMap(Book::getId, Function.identity()));
+
     List<LibraryReportResponse> reportResponses = new ArrayList<>();
 
-    for (Map.Entry<Long, Integer> entry : bookCountMap.entrySet()) {
-      Long bookId = entry.getKey();
-      Integer count = entry.getValue();
+    for (BookAvailabilityCount entry : counts) {
+      Long bookId = entry.getBookId();
+      Book book = books.get(bookId);
+      if (book == null) {
+        throw new ResourceNotFoundException("Book not found with id: " + bookId);
+      }
 
       LibraryReportResponse response = new LibraryReportResponse();
-      response.setCount(count);
-
-      BookModelForReport bookModel =
-          bookCopies.stream()
-              .filter(bookCopy -> bookCopy.getBook().getId().equals(bookId))
-              .findFirst()
-              .map(BookModelForReport::toModel)
-              .orElseThrow(
-                  () -> new ResourceNotFoundException("Book not found with id: " + bookId));
-
-      response.setBookModels(bookModel);
+      response.setCount(entry.getCount().intValue());
+      response.setBookModels(BookModelForReport.toModel(book));
 
       reportResponses.add(response);
     }
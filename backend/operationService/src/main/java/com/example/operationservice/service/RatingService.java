@@ -46,6 +46,8 @@ public class RatingService {
                     new ResourceNotFoundException(
                         "Book not found with id: " + request.getBookId())));
     newRating.setTime(LocalDateTime.now());
-    return ratingMapper.toResponse(ratingRepository.save(newRating));
+    Rating savedRating = ratingRepository.save(newRating);
+    bookRepository.addRating(request.getBookId(), request.getRatingValue());
+    return ratingMapper.toResponse(savedRating);
   }
 }
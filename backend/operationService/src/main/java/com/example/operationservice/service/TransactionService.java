@@ -7,48 +7,73 @@ import com.example.operationservice.dto.TransactionResponse;
 import com.example.operationservice.dto.TransactionReturnRequest;
 import com.example.operationservice.dto.mapper.TransactionMapper;
 import com.example.operationservice.kafka.EmailRequest;
-import com.example.operationservice.kafka.KafkaProducer;
 import com.example.operationservice.model.*;
 import com.example.operationservice.model.BookCopy;
+import com.example.operationservice.repository.BookRepository;
 import com.example.operationservice.repository.BookTransactionRepository;
 import com.example.operationservice.repository.CopiesRepository;
+import com.example.operationservice.repository.EmailOutboxRepository;
 import com.example.operationservice.util.SecurityContextUtil;
+import com.example.shared.dto.CursorPageResponse;
 import com.example.shared.exception.BusinessLogicException;
+import com.example.shared.exception.ConflictException;
 import com.example.shared.exception.ResourceNotFoundException;
+import com.example.shared.exception.ValidationException;
+import com.example.shared.util.CursorUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
+  private static final int MAX_SCROLL_LIMIT = 100;
+  private static final int MAX_RESERVE_ATTEMPTS = 3;
+
   private final BookTransactionRepository bookTransactionRepository;
   private final CopiesRepository copiesRepository;
-  private final KafkaProducer kafkaProducer;
+  private final BookRepository bookRepository;
+  private final EmailOutboxRepository emailOutboxRepository;
   private final ObjectMapper objectMapper;
   private final TransactionMapper transactionMapper;
+  private final TransactionTemplate transactionTemplate;
 
-  @Transactional
+  // Вторую бронь той же копии отсекает уникальный индекс по PENDING (V8): проигравшая попытка
+  // откатывается целиком, а повтор в новой транзакции уже видит чужую бронь и берёт другую копию
+  @Timed(value = "transaction.reserve", histogram = true)
   public BookTransactionResponse reserve(Long id, TransactionCreateRequest request) {
-    BookTransaction transaction = new BookTransaction();
-    List<BookCopy> bookCopyList =
-        copiesRepository.findByBookIdAndLibraryId(id, request.getLibraryId()).stream()
-            .filter(status -> Boolean.TRUE.equals(status.getAvailable()))
-            .collect(java.util.stream.Collectors.toList());
-    if (bookCopyList.isEmpty()) {
-      throw new ResourceNotFoundException("Book copy not found in Library");
+    String userId = SecurityContextUtil.getUserId();
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return transactionTemplate.execute(
+            status -> createReservation(id, request.getLibraryId(), userId));
+      } catch (DataIntegrityViolationException e) {
+        if (attempt >= MAX_RESERVE_ATTEMPTS) {
+          throw new ConflictException("Book copy is being reserved concurrently, try again", e);
+        }
+      }
     }
-    BookCopy book = bookCopyList.get(0);
-    transaction.setBookCopy(book);
+  }
 
-    String userId = SecurityContextUtil.getUserId();
+  private BookTransactionResponse createReservation(Long bookId, Long libraryId, String userId) {
+    BookTransaction transaction = new BookTransaction();
+    BookCopy book =
+        copiesRepository
+            .claimAvailableCopy(bookId, libraryId)
+            .orElseThrow(() -> new ResourceNotFoundException("Book copy not found in Library"));
+    transaction.setBookCopy(book);
     transaction.setUserId(userId != null ? userId : "anonymous");
     transaction.setStatus(Status.PENDING);
     transaction.setCreationDate(LocalDateTime.now());
@@ -57,14 +82,57 @@ public class TransactionService {
 
   @Transactional(readOnly = true)
   public List<TransactionResponse> getRequests(Long libraryId) {
-    List<BookTransaction> res =
-        bookTransactionRepository.findUnborrowedTransactionsByLibraryId(libraryId);
-    return res.stream()
-        .filter(bookTransaction -> bookTransaction.getStatus() != Status.REJECTED)
+    return getRequests(libraryId, null, null);
+  }
+
+  // Без size отдаётся вся очередь, с size - страница page; в обоих случаях один SQL-запрос
+  @Transactional(readOnly = true)
+  public List<TransactionResponse> getRequests(Long libraryId, Integer page, Integer size) {
+    Pageable pageable = Pageable.unpaged();
+    if (size != null) {
+      if (size < 1 || size > MAX_SCROLL_LIMIT) {
+        throw new ValidationException("Size must be between 1 and " + MAX_SCROLL_LIMIT);
+      }
+      if (page != null && page < 0) {
+        throw new ValidationException("Page must not be negative");
+      }
+      pageable = PageRequest.of(page != null ? page : 0, size);
+    }
+    return bookTransactionRepository
+        .findPendingRequestsByLibraryIdAfter(libraryId, 0L, pageable)
+        .stream()
         .map(transactionMapper::toTransactionResponse)
         .collect(Collectors.toList());
   }
 
+  // Keyset-пагинация очереди заявок: курсор хранит id последней заявки, COUNT не выполняется
+  @Transactional(readOnly = true)
+  public CursorPageResponse<TransactionResponse> scrollRequests(
+      Long libraryId, String cursor, int limit) {
+    if (limit < 1 || limit > MAX_SCROLL_LIMIT) {
+      throw new ValidationException("Limit must be between 1 and " + MAX_SCROLL_LIMIT);
+    }
+    Long afterId =
+        cursor == null || cursor.isEmpty()
+            ? 0L
+            : CursorUtil.decodeId(CursorUtil.decode(cursor, 1)[0]);
+
+    List<PendingRequestView> requests =
+        bookTransactionRepository.findPendingRequestsByLibraryIdAfter(
+            libraryId, afterId, PageRequest.of(0, limit + 1));
+    String nextCursor = null;
+    if (requests.size() > limit) {
+      requests = requests.subList(0, limit);
+      nextCursor = CursorUtil.encode(String.valueOf(requests.get(limit - 1).getId()));
+    }
+    return new CursorPageResponse<>(
+        requests.stream()
+            .map(transactionMapper::toTransactionResponse)
+            .collect(Collectors.toList()),
+        nextCursor);
+  }
+
+  @Timed(value = "transaction.approve", histogram = true)
   @Transactional
   public BookTransactionResponse approve(Long id) {
     BookTransaction transaction =
@@ -78,26 +146,16 @@ public class TransactionService {
       bookCopy.setAvailable(false);
       transaction.setStatus(Status.APPROVED);
       copiesRepository.save(bookCopy);
+      bookRepository.adjustCopyCounters(
+          bookCopy.getBook().getId(), bookCopy.getLibrary().getId(), 0, -1);
 
     } else {
       throw new BusinessLogicException("Book copy is not available");
     }
 
-    String userEmail = SecurityContextUtil.getEmail();
-    userEmail = userEmail != null ? userEmail : "anonymous@example.com";
-    try {
-      String json =
-          objectMapper.writeValueAsString(
-              new EmailRequest(
-                  userEmail,
-                  "BooBook",
-                  "Ваша бронь на книгу "
-                      + transaction.getBookCopy().getBook().getTitle()
-                      + " одобрена."));
-      kafkaProducer.sendMessage(json);
-    } catch (JsonProcessingException ex) {
-      throw new BusinessLogicException("Failed to send email notification");
-    }
+    enqueueEmail(
+        transaction,
+        "Ваша бронь на книгу " + transaction.getBookCopy().getBook().getTitle() + " одобрена.");
 
     return transactionMapper.toBookTransactionResponse(bookTransactionRepository.save(transaction));
   }
@@ -112,27 +170,17 @@ public class TransactionService {
     transaction.setStatus(Status.REJECTED);
     transaction.setComment(request.getComment());
 
-    String userEmail = SecurityContextUtil.getEmail();
-    userEmail = userEmail != null ? userEmail : "anonymous@example.com";
-
-    try {
-      String json =
-          objectMapper.writeValueAsString(
-              new EmailRequest(
-                  userEmail,
-                  "BooBook",
-                  "Ваша бронь на книгу "
-                      + transaction.getBookCopy().getBook().getTitle()
-                      + " отклонена. Причина: "
-                      + transaction.getComment()
-                      + "."));
-      kafkaProducer.sendMessage(json);
-    } catch (JsonProcessingException ex) {
-      throw new BusinessLogicException("Failed to send email notification");
-    }
+    enqueueEmail(
+        transaction,
+        "Ваша бронь на книгу "
+            + transaction.getBookCopy().getBook().getTitle()
+            + " отклонена. Причина: "
+            + transaction.getComment()
+            + ".");
     return transactionMapper.toBookTransactionResponse(bookTransactionRepository.save(transaction));
   }
 
+  @Timed(value = "transaction.return", histogram = true)
   @Transactional
   public BookTransactionResponse returnBack(TransactionReturnRequest request) {
     List<BookCopy> bookCopies =
@@ -153,6 +201,13 @@ public class TransactionService {
     BookTransaction bookTransaction = transactions.get(0);
     bookTransaction.setStatus(Status.RETURNED);
     bookTransaction.setReturnDate(LocalDateTime.now());
+    // Возвращённый экземпляр снова доступен для брони
+    if (!Boolean.TRUE.equals(bookCopy.getAvailable())) {
+      bookCopy.setAvailable(true);
+      copiesRepository.save(bookCopy);
+      bookRepository.adjustCopyCounters(
+          bookCopy.getBook().getId(), bookCopy.getLibrary().getId(), 0, 1);
+    }
 
     return transactionMapper.toBookTransactionResponse(
         bookTransactionRepository.save(bookTransaction));
@@ -189,4 +244,19 @@ public class TransactionService {
     }
     return allStatus;
   }
+
+  // Письмо попадает в outbox в той же транзакции; в Kafka его публикует EmailOutboxRelay
+  private void enqueueEmail(BookTransaction transaction, String body) {
+    String userEmail = SecurityContextUtil.getEmail();
+    userEmail = userEmail != null ? userEmail : "anonymous@example.com";
+    try {
+      EmailOutbox message = new EmailOutbox();
+      message.setMessageKey(String.valueOf(transaction.getId()));
+      message.setPayload(
+          objectMapper.writeValueAsString(new EmailRequest(userEmail, "BooBook", body)));
+      emailOutboxRepository.save(message);
+    } catch (JsonProcessingException ex) {
+      throw new BusinessLogicException("Failed to send email notification");
+    }
+  }
 }
@@ -1,113 +1,244 @@
 package com.example.operationservice.service;
 
 import com.example.operationservice.model.AuthorModel;
+import com.example.operationservice.model.BookTransaction;
+import com.example.operationservice.model.Rating;
 import com.example.operationservice.model.UnifiedData;
+import com.example.operationservice.repository.BookRepository;
 import com.example.operationservice.repository.BookTransactionRepository;
 import com.example.operationservice.repository.RatingRepository;
 import com.example.operationservice.util.SecurityContextUtil;
+import com.example.shared.dto.CursorPageResponse;
+import com.example.shared.exception.ValidationException;
+import com.example.shared.model.Book;
+import com.example.shared.util.CursorUtil;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class UnifiedDataService {
+  private static final String RATING = "Rating";
+  private static final String TRANSACTION = "BookTransaction";
+  private static final int MAX_FEED_LIMIT = 100;
+
+  // Порядок ленты: время по убыванию, затем тип, затем id по убыванию
+  static final Comparator<UnifiedData> FEED_ORDER =
+      Comparator.comparing(UnifiedData::getTime, Comparator.reverseOrder())
+          .thenComparingInt(unit -> typeRank(unit.getType()))
+          .thenComparing(UnifiedData::getId, Comparator.reverseOrder());
+
   private final RatingRepository ratingRepository;
   private final BookTransactionRepository bookTransactionRepository;
+  private final BookRepository bookRepository;
 
   public UnifiedDataService(
-      RatingRepository ratingRepository, BookTransactionRepository bookTransactionRepository) {
+      RatingRepository ratingRepository,
+      BookTransactionRepository bookTransactionRepository,
+      BookRepository bookRepository) {
     this.ratingRepository = ratingRepository;
     this.bookTransactionRepository = bookTransactionRepository;
+    this.bookRepository = bookRepository;
   }
 
-  @Transactional
+  // email в UnifiedData больше не хранится, поэтому история строится по userId из токена
+  @Transactional(readOnly = true)
   public List<UnifiedData> getUnifiedDataSortedByTime(String email) {
-    List<UnifiedData> unifiedData = new ArrayList<>();
+    String userId = SecurityContextUtil.getUserId();
+    if (userId == null || userId.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    List<Rating> ratings =
+        ratingRepository.findByUserIdOrderByTimeDescIdDesc(userId, Pageable.unpaged());
+    List<BookTransaction> transactions =
+        bookTransactionRepository.findByUserIdOrderByCreationDateDescIdDesc(
+            userId, Pageable.unpaged());
+
+    return toFeed(ratings, transactions, Integer.MAX_VALUE);
+  }
+
+  @Transactional(readOnly = true)
+  public CursorPageResponse<UnifiedData> getActivityFeed(String cursor, int limit) {
+    if (limit < 1 || limit > MAX_FEED_LIMIT) {
+      throw new ValidationException("Limit must be between 1 and " + MAX_FEED_LIMIT);
+    }
 
     String userId = SecurityContextUtil.getUserId();
-    String userEmail = SecurityContextUtil.getEmail();
-
-    // Используем email из параметра, если передан, иначе из токена
-    final String finalEmail = (email != null && !email.isEmpty()) ? email : userEmail;
-    final String finalUserId = userId;
-
-    unifiedData.addAll(
-        ratingRepository.findAll().stream()
-            .map(
-                rating ->
-                    new UnifiedData(
-                        rating.getId(),
-                        "Rating",
-                        rating.getTime(),
-                        rating.getUserId(),
-                        null, // email удален из модели - получается из Keycloak по userId
-                        rating.getRatingValue().intValue(),
-                        rating.getReview(),
-                        rating.getBook().getTitle(),
-                        rating.getBook().getAuthors().stream()
-                            .map(AuthorModel::toModel)
-                            .collect(Collectors.toList()), // FirstName для Rating отсутствует
-                        null,
-                        null,
-                        null,
-                        null,
-                        null))
-            .collect(Collectors.toList()));
-
-    unifiedData.addAll(
-        bookTransactionRepository.findAll().stream()
-            .map(
-                transaction ->
-                    new UnifiedData(
-                        transaction.getId(),
-                        "BookTransaction",
-                        transaction.getCreationDate(),
-                        transaction.getUserId(),
-                        null, // email удален из модели - получается из Keycloak по userId
-                        null,
-                        null,
-                        transaction.getBookCopy().getBook().getTitle(),
-                        transaction.getBookCopy().getBook().getAuthors().stream()
-                            .map(AuthorModel::toModel)
-                            .collect(Collectors.toList()),
-                        transaction.getBookCopy().getLibrary(),
-                        transaction.getBorrowDate(),
-                        transaction.getStatus().toString(),
-                        transaction.getComment(),
-                        transaction.getBookCopy().getInventoryNumber()))
-            .collect(Collectors.toList()));
-    // Фильтруем по email (приоритет), если он указан, иначе по userId
-    if (finalEmail != null && !finalEmail.isEmpty()) {
-      List<UnifiedData> filteredByEmail =
-          unifiedData.stream()
-              .filter(unit -> Objects.equals(unit.getEmail(), finalEmail))
-              .sorted(Comparator.comparing(UnifiedData::getTime).reversed())
-              .collect(Collectors.toList());
-
-      // Если нашли по email, возвращаем
-      if (!filteredByEmail.isEmpty()) {
-        return filteredByEmail;
-      }
+    if (userId == null || userId.isEmpty()) {
+      return new CursorPageResponse<>(new ArrayList<>(), null);
     }
 
-    // Если по email не нашли, пробуем по userId
-    if (finalUserId != null && !finalUserId.isEmpty()) {
-      List<UnifiedData> filteredByUserId =
-          unifiedData.stream()
-              .filter(unit -> Objects.equals(unit.getUserId(), finalUserId))
-              .sorted(Comparator.comparing(UnifiedData::getTime).reversed())
-              .collect(Collectors.toList());
+    // Из каждого потока берем limit + 1 строк, чтобы понять, есть ли следующая страница
+    Pageable window = PageRequest.of(0, limit + 1);
+    List<Rating> ratings;
+    List<BookTransaction> transactions;
+    if (cursor == null || cursor.isEmpty()) {
+      ratings = ratingRepository.findByUserIdOrderByTimeDescIdDesc(userId, window);
+      transactions =
+          bookTransactionRepository.findByUserIdOrderByCreationDateDescIdDesc(userId, window);
+    } else {
+      FeedCursor after = decodeCursor(cursor);
+      ratings =
+          ratingRepository.findByUserIdBefore(
+              userId, after.time, idBoundFor(RATING, after), window);
+      transactions =
+          bookTransactionRepository.findByUserIdBefore(
+              userId, after.time, idBoundFor(TRANSACTION, after), window);
+    }
 
-      if (!filteredByUserId.isEmpty()) {
-        return filteredByUserId;
+    List<UnifiedData> feed = toFeed(ratings, transactions, limit + 1);
+    if (feed.size() <= limit) {
+      return new CursorPageResponse<>(feed, null);
+    }
+    List<UnifiedData> page = new ArrayList<>(feed.subList(0, limit));
+    return new CursorPageResponse<>(page, encodeCursor(page.get(limit - 1)));
+  }
+
+  private List<UnifiedData> toFeed(
+      List<Rating> ratings, List<BookTransaction> transactions, int limit) {
+    preloadAuthors(ratings, transactions);
+
+    Iterator<UnifiedData> ratingStream = ratings.stream().map(this::fromRating).iterator();
+    Iterator<UnifiedData> transactionStream =
+        transactions.stream().map(this::fromTransaction).iterator();
+
+    return mergeSorted(List.of(ratingStream, transactionStream), FEED_ORDER, limit);
+  }
+
+  // Авторы книг окна подгружаются одним запросом вместо ленивой загрузки на каждую строку
+  private void preloadAuthors(List<Rating> ratings, List<BookTransaction> transactions) {
+    Set<Long> bookIds =
+        Stream.concat(
+                ratings.stream().map(Rating::getBook),
+                transactions.stream().map(transaction -> transaction.getBookCopy().getBook()))
+            .filter(Objects::nonNull)
+            .map(Book::getId)
+            .collect(Collectors.toSet());
+    if (!bookIds.isEmpty()) {
+      bookRepository.findAllWithDetailsByIdIn(bookIds);
+    }
+  }
+
+  // k-way слияние уже отсортированных потоков, забирает не больше limit элементов
+  static <T> List<T> mergeSorted(List<Iterator<T>> sources, Comparator<T> order, int limit) {
+    PriorityQueue<MergeHead<T>> heads =
+        new PriorityQueue<>((left, right) -> order.compare(left.value, right.value));
+    for (Iterator<T> source : sources) {
+      if (source.hasNext()) {
+        heads.add(new MergeHead<>(source.next(), source));
       }
     }
 
-    // Если ни email, ни userId не указаны или не найдены, возвращаем пустой список
-    return new ArrayList<>();
+    List<T> merged = new ArrayList<>();
+    while (!heads.isEmpty() && merged.size() < limit) {
+      MergeHead<T> head = heads.poll();
+      merged.add(head.value);
+      if (head.source.hasNext()) {
+        heads.add(new MergeHead<>(head.source.next(), head.source));
+      }
+    }
+    return merged;
+  }
+
+  private static final class MergeHead<T> {
+    private final T value;
+    private final Iterator<T> source;
+
+    private MergeHead(T value, Iterator<T> source) {
+      this.value = value;
+      this.source = source;
+    }
+  }
+
+  private UnifiedData fromRating(Rating rating) {
+    return new UnifiedData(
+        rating.getId(),
+        RATING,
+        rating.getTime(),
+        rating.getUserId(),
+        null, // email удален из модели - получается из Keycloak по userId
+        rating.getRatingValue().intValue(),
+        rating.getReview(),
+        rating.getBook().getTitle(),
+        rating.getBook().getAuthors().stream()
+            .map(AuthorModel::toModel)
+            .collect(Collectors.toList()), // FirstName для Rating отсутствует
+        null,
+        null,
+        null,
+        null,
+        null);
+  }
+
+  private UnifiedData fromTransaction(BookTransaction transaction) {
+    return new UnifiedData(
+        transaction.getId(),
+        TRANSACTION,
+        transaction.getCreationDate(),
+        transaction.getUserId(),
+        null, // email удален из модели - получается из Keycloak по userId
+        null,
+        null,
+        transaction.getBookCopy().getBook().getTitle(),
+        transaction.getBookCopy().getBook().getAuthors().stream()
+            .map(AuthorModel::toModel)
+            .collect(Collectors.toList()),
+        transaction.getBookCopy().getLibrary(),
+        transaction.getBorrowDate(),
+        transaction.getStatus().toString(),
+        transaction.getComment(),
+        transaction.getBookCopy().getInventoryNumber());
+  }
+
+  private static int typeRank(String type) {
+    return RATING.equals(type) ? 0 : 1;
+  }
+
+  // Граница id для потока при равном времени: поток, идущий после типа курсора, берется целиком
+  private static Long idBoundFor(String type, FeedCursor after) {
+    int rank = typeRank(type);
+    int cursorRank = typeRank(after.type);
+    if (rank == cursorRank) {
+      return after.id;
+    }
+    return rank > cursorRank ? Long.MAX_VALUE : Long.MIN_VALUE;
+  }
+
+  private static String encodeCursor(UnifiedData last) {
+    return CursorUtil.encode(
+        String.valueOf(last.getTime()), last.getType(), String.valueOf(last.getId()));
+  }
+
+  private static FeedCursor decodeCursor(String cursor) {
+    String[] parts = CursorUtil.decode(cursor, 3);
+    if (!RATING.equals(parts[1]) && !TRANSACTION.equals(parts[1])) {
+      throw new ValidationException("Invalid cursor");
+    }
+    return new FeedCursor(
+        CursorUtil.decodeTime(parts[0]), parts[1], CursorUtil.decodeId(parts[2]));
+  }
+
+  private static final class FeedCursor {
+    private final LocalDateTime time;
+    private final String type;
+    private final Long id;
+
+    private FeedCursor(LocalDateTime time, String type, Long id) {
+      this.time = time;
+      this.type = type;
+      this.id = id;
+    }
   }
 }
@@ -16,7 +16,7 @@ public class SecurityContextUtil {
       if (auth != null && auth.getPrincipal() != null) {
         if (auth.getPrincipal() instanceof Jwt) {
           Jwt jwt = (Jwt) auth.getPrincipal();
-          CustomUserDetails userDetails = JwtTokenUtil.parseToken(jwt.getTokenValue());
+          CustomUserDetails userDetails = JwtTokenUtil.fromJwt(jwt);
           return userDetails != null ? userDetails.getId() : null;
         } else if (auth.getPrincipal() instanceof CustomUserDetails) {
           CustomUserDetails userDetails = (CustomUserDetails) auth.getPrincipal();
@@ -39,7 +39,7 @@ public class SecurityContextUtil {
           if (email != null) {
             return email;
           }
-          CustomUserDetails userDetails = JwtTokenUtil.parseToken(jwt.getTokenValue());
+          CustomUserDetails userDetails = JwtTokenUtil.fromJwt(jwt);
           return userDetails != null ? userDetails.getEmail() : null;
         } else if (auth.getPrincipal() instanceof CustomUserDetails) {
           CustomUserDetails userDetails = (CustomUserDetails) auth.getPrincipal();
@@ -58,7 +58,7 @@ public class SecurityContextUtil {
       if (auth != null && auth.getPrincipal() != null) {
         if (auth.getPrincipal() instanceof Jwt) {
           Jwt jwt = (Jwt) auth.getPrincipal();
-          return JwtTokenUtil.parseToken(jwt.getTokenValue());
+          return JwtTokenUtil.fromJwt(jwt);
         } else if (auth.getPrincipal() instanceof CustomUserDetails) {
           return (CustomUserDetails) auth.getPrincipal();
         }
@@ -0,0 +1,33 @@
+-- Миграция V10: Денормализованные счётчики экземпляров книги
+-- Фильтры по числу и наличию экземпляров читают колонки book вместо подзапросов к book_copy
+
+-- ============================================
+-- 1. КОЛОНКИ СЧЁТЧИКОВ
+-- ============================================
+
+ALTER TABLE book
+    ADD COLUMN IF NOT EXISTS total_copies INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS available_copies INTEGER NOT NULL DEFAULT 0;
+
+-- ============================================
+-- 2. ЗАПОЛНЕНИЕ ПО СУЩЕСТВУЮЩИМ ЭКЗЕМПЛЯРАМ
+-- ============================================
+
+UPDATE book b
+SET total_copies = s.total_copies,
+    available_copies = s.available_copies
+FROM (
+    SELECT bc.book_id,
+           COUNT(*) AS total_copies,
+           COUNT(*) FILTER (WHERE bc.available) AS available_copies
+    FROM book_copy bc
+    GROUP BY bc.book_id
+) s
+WHERE b.id = s.book_id;
+
+-- ============================================
+-- 3. ИНДЕКСЫ ДЛЯ ФИЛЬТРОВ ПО НАЛИЧИЮ
+-- ============================================
+
+CREATE INDEX IF NOT EXISTS idx_book_total_copies ON book(total_copies);
+CREATE INDEX IF NOT EXISTS idx_book_available_copies ON book(available_copies);
@@ -0,0 +1,5 @@
+-- Миграция V12: Индекс author_books по автору
+-- Поиск по имени автора (BookSpecifications.matchesText) идёт от author к его книгам,
+-- первичный ключ (book_id, author_id) для такого перехода не подходит
+
+CREATE INDEX IF NOT EXISTS idx_author_books_author_id ON author_books(author_id);
@@ -0,0 +1,41 @@
+-- Миграция V14: Счётчики экземпляров книги в разрезе библиотеки
+-- Дополняют book.total_copies/available_copies (V10) и меняются в той же транзакции,
+-- что и book_copy, через BookRepository.adjustCopyCounters
+
+-- ============================================
+-- 1. ТАБЛИЦА СЧЁТЧИКОВ
+-- ============================================
+
+CREATE TABLE IF NOT EXISTS book_library_copies (
+    book_id BIGINT NOT NULL,
+    library_id BIGINT NOT NULL,
+    total_copies INTEGER NOT NULL DEFAULT 0,
+    available_copies INTEGER NOT NULL DEFAULT 0,
+    CONSTRAINT pk_book_library_copies PRIMARY KEY (book_id, library_id),
+    CONSTRAINT fk_book_library_copies_book
+        FOREIGN KEY (book_id) REFERENCES book(id) ON DELETE CASCADE,
+    CONSTRAINT fk_book_library_copies_library
+        FOREIGN KEY (library_id) REFERENCES library(id) ON DELETE CASCADE
+);
+
+-- ============================================
+-- 2. ЗАПОЛНЕНИЕ ПО СУЩЕСТВУЮЩИМ ЭКЗЕМПЛЯРАМ
+-- ============================================
+
+INSERT INTO book_library_copies (book_id, library_id, total_copies, available_copies)
+SELECT bc.book_id,
+       bc.library_id,
+       COUNT(*),
+       COUNT(*) FILTER (WHERE bc.available)
+FROM book_copy bc
+GROUP BY bc.book_id, bc.library_id
+ON CONFLICT (book_id, library_id) DO UPDATE
+SET total_copies = EXCLUDED.total_copies,
+    available_copies = EXCLUDED.available_copies;
+
+-- ============================================
+-- 3. ИНДЕКС ДЛЯ ОТЧЁТА ПО БИБЛИОТЕКЕ
+-- ============================================
+
+CREATE INDEX IF NOT EXISTS idx_book_library_copies_library_available
+    ON book_library_copies(library_id, book_id) WHERE available_copies > 0;
@@ -0,0 +1,6 @@
+-- Миграция V6: Индексы для ленты активности пользователя (keyset-пагинация)
+
+CREATE INDEX IF NOT EXISTS idx_rating_user_time ON rating(user_id, time DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_book_transaction_user_creation_date
+    ON book_transaction(user_id, creation_date DESC, id DESC);
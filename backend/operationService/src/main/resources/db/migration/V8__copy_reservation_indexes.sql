@@ -0,0 +1,10 @@
+-- Миграция V8: Индексы для захвата свободной копии при бронировании
+
+-- Поиск свободных копий книги в библиотеке
+CREATE INDEX IF NOT EXISTS idx_book_copy_book_library_available
+    ON book_copy(book_id, library_id) WHERE available = true;
+
+-- Не больше одной активной брони на копию: блокировка строки book_copy при захвате не мешает
+-- второй транзакции со старым снимком выбрать ту же копию, поэтому гарантию даёт индекс
+CREATE UNIQUE INDEX IF NOT EXISTS idx_book_transaction_pending_copy
+    ON book_transaction(book_copy_id) WHERE status = 'PENDING';
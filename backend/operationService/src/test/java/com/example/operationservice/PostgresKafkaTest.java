@@ -0,0 +1,21 @@
+package com.example.operationservice;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+// Приложение на настоящем PostgreSQL со схемой из миграций Flyway и встроенной Kafka.
+// Контейнер запускается один раз на все наследники: закешированный Spring-контекст
+// продолжает смотреть на тот же порт
+@SpringBootTest(properties = "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}")
+@EmbeddedKafka(partitions = 3, topics = "email_requests")
+public abstract class PostgresKafkaTest {
+
+  @ServiceConnection
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  static {
+    POSTGRES.start();
+  }
+}
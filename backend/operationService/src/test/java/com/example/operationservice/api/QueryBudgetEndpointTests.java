@@ -0,0 +1,170 @@
+package com.example.operationservice.api;
+
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.operationservice.api.v2.EndpointsV2;
+import com.jayway.jsonpath.JsonPath;
+import java.time.LocalDate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+// Лимиты @QueryBudget на настоящей схеме: при превышении QueryCountFilter отвечает 500
+@SpringBootTest(
+    properties = {
+      "query-budget.fail-on-exceed=true",
+      "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}"
+    })
+@AutoConfigureMockMvc
+@Testcontainers
+@EmbeddedKafka(partitions = 3, topics = "email_requests")
+@Transactional
+class QueryBudgetEndpointTests {
+
+  private static final int BOOKS = 30;
+
+  // BOOKS книг с двумя авторами и двумя экземплярами; на первый экземпляр каждой - заявка
+  private static final String SEED_SQL =
+      """
+          INSERT INTO library (name, address, opening_time, closing_time)
+          VALUES ('Query budget library', 'Test street, 1', '08:00', '20:00');
+
+          INSERT INTO author (name, surname)
+          SELECT 'Author' || g, 'Budget' || g FROM generate_series(1, 10) AS g;
+
+          INSERT INTO book (title, isbn)
+          SELECT 'Budget book ' || g, 'QB-' || g FROM generate_series(1, 30) AS g;
+
+          INSERT INTO author_books (book_id, author_id)
+          SELECT b.id, a.id
+          FROM book b
+          JOIN author a
+            ON a.surname IN ('Budget' || (1 + b.id % 10), 'Budget' || (1 + (b.id + 1) % 10))
+          WHERE b.isbn LIKE 'QB-%';
+
+          INSERT INTO book_copy (book_id, library_id, inventory_number, available)
+          SELECT b.id, l.id, 'QB-' || b.id || '-' || c, true
+          FROM book b
+          CROSS JOIN generate_series(1, 2) AS c
+          CROSS JOIN library l
+          WHERE b.isbn LIKE 'QB-%' AND l.name = 'Query budget library';
+
+          -- Счётчики V14 ведёт приложение, для вставки в обход него заполняем их здесь
+          INSERT INTO book_library_copies (book_id, library_id, total_copies, available_copies)
+          SELECT book_id, library_id, COUNT(*), COUNT(*) FILTER (WHERE available)
+          FROM book_copy
+          WHERE inventory_number LIKE 'QB-%'
+          GROUP BY book_id, library_id;
+
+          INSERT INTO book_transaction (book_copy_id, user_id, returned, creation_date, status)
+          SELECT bc.id, 'qb-user-' || bc.id, false, now(), 'PENDING'
+          FROM book_copy bc
+          WHERE bc.inventory_number LIKE 'QB-%-1';
+      """;
+
+  @Container @ServiceConnection
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private Long libraryId;
+
+  @BeforeEach
+  void seed() {
+    jdbcTemplate.execute(SEED_SQL);
+    libraryId =
+        jdbcTemplate.queryForObject(
+            "SELECT id FROM library WHERE name = 'Query budget library'", Long.class);
+  }
+
+  @Test
+  void libraryReportStaysWithinBudget() throws Exception {
+    mockMvc
+        .perform(get(Endpoints.TRANSACTION + "/libraryReport/{id}", libraryId).with(librarian()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(BOOKS))
+        .andExpect(jsonPath("$[0].count").value(2))
+        .andExpect(jsonPath("$[0].bookModels.authors.length()").value(2));
+  }
+
+  @Test
+  void historicalLibraryReportStaysWithinBudget() throws Exception {
+    mockMvc
+        .perform(
+            get(Endpoints.TRANSACTION + "/libraryReport/{id}", libraryId)
+                .param("date", LocalDate.now().plusDays(1).toString())
+                .with(librarian()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(BOOKS));
+  }
+
+  @Test
+  void pendingQueueIsOneQuery() throws Exception {
+    mockMvc
+        .perform(
+            get(EndpointsV2.TRANSACTIONS)
+                .param("libraryId", libraryId.toString())
+                .with(librarian()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(BOOKS))
+        .andExpect(jsonPath("$[0].authors.length()").value(2));
+
+    mockMvc
+        .perform(
+            get(EndpointsV2.TRANSACTIONS)
+                .param("libraryId", libraryId.toString())
+                .param("page", "1")
+                .param("size", "20")
+                .with(librarian()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(BOOKS - 20));
+  }
+
+  @Test
+  void pendingQueueScrollIsOneQueryPerPage() throws Exception {
+    String firstPage =
+        mockMvc
+            .perform(
+                get(EndpointsV2.TRANSACTIONS + "/scroll")
+                    .param("libraryId", libraryId.toString())
+                    .param("limit", "20")
+                    .with(librarian()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(20))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    mockMvc
+        .perform(
+            get(EndpointsV2.TRANSACTIONS + "/scroll")
+                .param("libraryId", libraryId.toString())
+                .param("cursor", JsonPath.<String>read(firstPage, "$.nextCursor"))
+                .param("limit", "20")
+                .with(librarian()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items.length()").value(BOOKS - 20))
+        .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+  }
+
+  private static RequestPostProcessor librarian() {
+    return jwt().authorities(new SimpleGrantedAuthority("ROLE_LIBRARIAN"));
+  }
+}
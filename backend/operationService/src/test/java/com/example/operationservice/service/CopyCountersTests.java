@@ -0,0 +1,131 @@
+package com.example.operationservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.operationservice.PostgresKafkaTest;
+import com.example.operationservice.dto.TransactionCreateRequest;
+import com.example.operationservice.dto.TransactionReturnRequest;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Счётчики book (V10) и book_library_copies (V14) после одобрения и возврата совпадают
+// с COUNT(*) по book_copy
+class CopyCountersTests extends PostgresKafkaTest {
+
+  // Расхождения счётчиков с book_copy по книгам и по парам книга/библиотека
+  private static final String MISMATCHES_SQL =
+      """
+          WITH copies AS (
+              SELECT bc.book_id,
+                     bc.library_id,
+                     COUNT(*) AS total,
+                     COUNT(*) FILTER (WHERE bc.available) AS available
+              FROM book_copy bc
+              JOIN book b ON b.id = bc.book_id
+              WHERE b.isbn = ?
+              GROUP BY bc.book_id, bc.library_id
+          ),
+          per_book AS (
+              SELECT book_id, SUM(total) AS total, SUM(available) AS available
+              FROM copies
+              GROUP BY book_id
+          ),
+          per_library AS (
+              SELECT blc.*
+              FROM book_library_copies blc
+              JOIN book b ON b.id = blc.book_id
+              WHERE b.isbn = ?
+          )
+          SELECT 'book ' || b.isbn
+          FROM book b
+          LEFT JOIN per_book p ON p.book_id = b.id
+          WHERE b.isbn = ?
+            AND (b.total_copies <> COALESCE(p.total, 0)
+                 OR b.available_copies <> COALESCE(p.available, 0))
+          UNION ALL
+          SELECT 'book ' || COALESCE(pl.book_id, c.book_id)
+                 || ' in library ' || COALESCE(pl.library_id, c.library_id)
+          FROM per_library pl
+          FULL JOIN copies c ON c.book_id = pl.book_id AND c.library_id = pl.library_id
+          WHERE COALESCE(pl.total_copies, 0) <> COALESCE(c.total, 0)
+             OR COALESCE(pl.available_copies, 0) <> COALESCE(c.available, 0)
+      """;
+
+  @Autowired private TransactionService transactionService;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private String isbn;
+  private Long bookId;
+  private Long libraryId;
+
+  // Книга с двумя свободными экземплярами и согласованными счётчиками; isbn уникален,
+  // чтобы тесты не видели чужих данных
+  @BeforeEach
+  void seed() {
+    isbn = "CNT-" + System.nanoTime();
+    libraryId =
+        jdbcTemplate.queryForObject(
+            "INSERT INTO library (name, address) VALUES (?, 'Counter street, 1') RETURNING id",
+            Long.class,
+            isbn);
+    bookId =
+        jdbcTemplate.queryForObject(
+            "INSERT INTO book (title, isbn, total_copies, available_copies)"
+                + " VALUES ('Counted book', ?, 2, 2) RETURNING id",
+            Long.class,
+            isbn);
+    jdbcTemplate.update(
+        "INSERT INTO book_copy (book_id, library_id, inventory_number, available)"
+            + " SELECT ?, ?, ? || '-' || g, true FROM generate_series(1, 2) AS g",
+        bookId,
+        libraryId,
+        isbn);
+    jdbcTemplate.update(
+        "INSERT INTO book_library_copies (book_id, library_id, total_copies, available_copies)"
+            + " VALUES (?, ?, 2, 2)",
+        bookId,
+        libraryId);
+  }
+
+  @Test
+  void countersFollowApproveAndReturn() {
+    assertConsistent("seed");
+
+    TransactionCreateRequest create = new TransactionCreateRequest();
+    create.setLibraryId(libraryId);
+    Long transactionId = transactionService.reserve(bookId, create).getId();
+    assertConsistent("reserve");
+
+    transactionService.approve(transactionId);
+    assertConsistent("approve");
+    assertThat(availableInLibrary()).isEqualTo(1);
+
+    TransactionReturnRequest returnRequest = new TransactionReturnRequest();
+    returnRequest.setInventoryNumber(
+        jdbcTemplate.queryForObject(
+            "SELECT bc.inventory_number FROM book_transaction bt"
+                + " JOIN book_copy bc ON bc.id = bt.book_copy_id WHERE bt.id = ?",
+            String.class,
+            transactionId));
+    transactionService.returnBack(returnRequest);
+    assertConsistent("return");
+    assertThat(availableInLibrary()).isEqualTo(2);
+  }
+
+  private void assertConsistent(String step) {
+    List<String> mismatches =
+        jdbcTemplate.queryForList(MISMATCHES_SQL, String.class, isbn, isbn, isbn);
+    assertThat(mismatches).as(step).isEmpty();
+  }
+
+  private Integer availableInLibrary() {
+    return jdbcTemplate.queryForObject(
+        "SELECT available_copies FROM book_library_copies WHERE book_id = ? AND library_id = ?",
+        Integer.class,
+        bookId,
+        libraryId);
+  }
+}
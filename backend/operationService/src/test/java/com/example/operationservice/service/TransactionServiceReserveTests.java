@@ -0,0 +1,156 @@
+package com.example.operationservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.operationservice.PostgresKafkaTest;
+import com.example.operationservice.dto.TransactionCreateRequest;
+import com.example.shared.exception.ConflictException;
+import com.example.shared.exception.ResourceNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class TransactionServiceReserveTests extends PostgresKafkaTest {
+
+  private static final int COPIES = 3;
+  private static final int THREADS = 16;
+  private static final int ROUNDS = 20;
+
+  @Autowired private TransactionService transactionService;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private Long bookId;
+  private Long libraryId;
+
+  // Книга с COPIES свободными экземплярами; isbn уникален, чтобы тесты не видели чужих данных
+  @BeforeEach
+  void seed() {
+    String isbn = "RESERVE-" + System.nanoTime();
+    libraryId =
+        jdbcTemplate.queryForObject(
+            "INSERT INTO library (name, address) VALUES (?, 'Reserve street, 1') RETURNING id",
+            Long.class,
+            isbn);
+    bookId =
+        jdbcTemplate.queryForObject(
+            "INSERT INTO book (title, isbn) VALUES ('Reserved book', ?) RETURNING id",
+            Long.class,
+            isbn);
+    jdbcTemplate.update(
+        "INSERT INTO book_copy (book_id, library_id, inventory_number, available)"
+            + " SELECT ?, ?, ? || '-' || g, true FROM generate_series(1, ?) AS g",
+        bookId,
+        libraryId,
+        isbn,
+        COPIES);
+  }
+
+  @Test
+  void concurrentReservationsNeverShareCopy() throws Exception {
+    TransactionCreateRequest request = new TransactionCreateRequest();
+    request.setLibraryId(libraryId);
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      AtomicInteger reserved = new AtomicInteger();
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  try {
+                    transactionService.reserve(bookId, request);
+                    reserved.incrementAndGet();
+                  } catch (ResourceNotFoundException | ConflictException e) {
+                    // Свободных копий не осталось или попытки исчерпаны - допустимый исход
+                  }
+                  return null;
+                }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(1, TimeUnit.MINUTES);
+      }
+
+      assertThat(reserved.get()).isEqualTo(COPIES);
+      assertThat(pendingPerCopy()).hasSize(COPIES).containsOnly(1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  // Гонку трудно поймать за один запуск: повторяем с отменой броней между раундами
+  @Test
+  void repeatedRacesKeepAtMostOnePendingPerCopy() throws Exception {
+    TransactionCreateRequest request = new TransactionCreateRequest();
+    request.setLibraryId(libraryId);
+
+    ExecutorService executor = Executors.newFixedThreadPool(COPIES * 2);
+    try {
+      for (int round = 0; round < ROUNDS; round++) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < COPIES * 2; i++) {
+          futures.add(
+              executor.submit(
+                  () -> {
+                    start.await();
+                    try {
+                      transactionService.reserve(bookId, request);
+                    } catch (ResourceNotFoundException | ConflictException e) {
+                      // Проигравшие попытки не должны оставлять броней
+                    }
+                    return null;
+                  }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+          future.get(1, TimeUnit.MINUTES);
+        }
+
+        assertThat(pendingPerCopy()).as("round %d", round).containsOnly(1);
+        jdbcTemplate.update(
+            "UPDATE book_transaction bt SET status = 'REJECTED' FROM book_copy bc"
+                + " WHERE bt.book_copy_id = bc.id AND bc.book_id = ? AND bt.status = 'PENDING'",
+            bookId);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void databaseRejectsSecondPendingRequestForCopy() {
+    Long copyId =
+        jdbcTemplate.queryForObject(
+            "SELECT min(id) FROM book_copy WHERE book_id = ?", Long.class, bookId);
+    String insert =
+        "INSERT INTO book_transaction (book_copy_id, user_id, returned, creation_date, status)"
+            + " VALUES (?, 'user', false, now(), 'PENDING')";
+    jdbcTemplate.update(insert, copyId);
+
+    assertThatThrownBy(() -> jdbcTemplate.update(insert, copyId))
+        .isInstanceOf(DuplicateKeyException.class);
+  }
+
+  private List<Integer> pendingPerCopy() {
+    return jdbcTemplate.queryForList(
+        "SELECT count(*)::int FROM book_transaction bt JOIN book_copy bc ON bc.id = bt.book_copy_id"
+            + " WHERE bc.book_id = ? AND bt.status = 'PENDING' GROUP BY bt.book_copy_id",
+        Integer.class,
+        bookId);
+  }
+}
@@ -0,0 +1,17 @@
+package com.example.shared.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+  private List<T> items;
+  // Курсор следующей страницы, null если записей больше нет
+  private String nextCursor;
+}
@@ -0,0 +1,16 @@
+package com.example.shared.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Лимит SQL-запросов на один вызов endpoint вместо query-budget.default-limit
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+  int UNLIMITED = -1;
+
+  int value();
+}
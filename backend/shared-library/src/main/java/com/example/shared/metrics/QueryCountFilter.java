@@ -0,0 +1,151 @@
+package com.example.shared.metrics;
+
+import com.example.shared.metrics.QueryCountInspector.QueryCount;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+// Число SQL-запросов на HTTP-запрос по шаблону URI: рост на одном endpoint выдаёт N+1;
+// регистрируется в MetricsConfig каждого сервиса
+@Slf4j
+@RequiredArgsConstructor
+public class QueryCountFilter extends OncePerRequestFilter {
+
+  private final QueryCountInspector queryCountInspector;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${query-budget.default-limit:30}")
+  private int defaultLimit;
+
+  // В тестах превышение лимита отвечает 500, в работе только пишется в лог и метрики.
+  // Чтобы успеть заменить ответ, тело придерживается в буфере до проверки лимита
+  @Value("${query-budget.fail-on-exceed:false}")
+  private boolean failOnExceed;
+
+  // Потоковые ответы дописываются в async dispatch, буфер отдаётся после него
+  @Override
+  protected boolean shouldNotFilterAsyncDispatch() {
+    return false;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      @NonNull HttpServletRequest request,
+      @NonNull HttpServletResponse response,
+      @NonNull FilterChain filterChain)
+      throws ServletException, IOException {
+    if (isAsyncDispatch(request)) {
+      try {
+        filterChain.doFilter(request, response);
+      } finally {
+        copyBuffered(request, response);
+      }
+      return;
+    }
+
+    HttpServletResponse target =
+        failOnExceed ? new ContentCachingResponseWrapper(response) : response;
+    queryCountInspector.start();
+    QueryCount queries;
+    try {
+      filterChain.doFilter(request, target);
+    } finally {
+      queries = queryCountInspector.stop();
+      DistributionSummary.builder("http.server.requests.queries")
+          .description("SQL statements executed per HTTP request")
+          .baseUnit("queries")
+          .tag("method", request.getMethod())
+          .tag("uri", uriPattern(request))
+          .publishPercentileHistogram()
+          .register(meterRegistry)
+          .record(queries.getTotal());
+    }
+
+    String exceeded = checkBudget(request, queries);
+    boolean replaceable = !request.isAsyncStarted() && !response.isCommitted();
+    if (exceeded != null && failOnExceed && replaceable) {
+      log.error(exceeded);
+      response.reset();
+      response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, exceeded);
+      return;
+    }
+    if (exceeded != null) {
+      log.warn(exceeded);
+    }
+    copyBuffered(request, target);
+  }
+
+  // Сообщение о превышении лимита или null, если запрос в него уложился
+  private String checkBudget(HttpServletRequest request, QueryCount queries) {
+    int limit = limitFor(request);
+    if (limit == QueryBudget.UNLIMITED || queries.getTotal() <= limit) {
+      log.debug(
+          "{} {} executed {} SQL statements",
+          request.getMethod(),
+          request.getRequestURI(),
+          queries.getTotal());
+      return null;
+    }
+
+    meterRegistry
+        .counter(
+            "http.server.requests.query.budget.exceeded",
+            "method",
+            request.getMethod(),
+            "uri",
+            uriPattern(request))
+        .increment();
+    Map.Entry<String, Integer> mostRepeated = queries.getMostRepeated();
+    return String.format(
+        "%s %s executed %d SQL statements, budget is %d; most repeated (%d times): %s",
+        request.getMethod(),
+        request.getRequestURI(),
+        queries.getTotal(),
+        limit,
+        mostRepeated.getValue(),
+        mostRepeated.getKey());
+  }
+
+  // Пока идёт async-обработка, тело ещё пишется: его отдаст async dispatch
+  private static void copyBuffered(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    if (request.isAsyncStarted()) {
+      return;
+    }
+    ContentCachingResponseWrapper buffered =
+        WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+    if (buffered != null) {
+      buffered.copyBodyToResponse();
+    }
+  }
+
+  private int limitFor(HttpServletRequest request) {
+    Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+    if (handler instanceof HandlerMethod handlerMethod) {
+      QueryBudget budget = handlerMethod.getMethodAnnotation(QueryBudget.class);
+      if (budget != null) {
+        return budget.value();
+      }
+    }
+    return defaultLimit;
+  }
+
+  private static String uriPattern(HttpServletRequest request) {
+    Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    return uri != null ? uri.toString() : "UNKNOWN";
+  }
+}
@@ -0,0 +1,50 @@
+package com.example.shared.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Считает SQL-запросы Hibernate в текущем потоке между start() и stop();
+// регистрируется в MetricsConfig каждого сервиса
+public class QueryCountInspector implements StatementInspector {
+
+  private final ThreadLocal<QueryCount> counter = new ThreadLocal<>();
+
+  @Override
+  public String inspect(String sql) {
+    QueryCount count = counter.get();
+    if (count != null) {
+      count.add(sql);
+    }
+    return sql;
+  }
+
+  public void start() {
+    counter.set(new QueryCount());
+  }
+
+  public QueryCount stop() {
+    QueryCount count = counter.get();
+    counter.remove();
+    return count != null ? count : new QueryCount();
+  }
+
+  public static final class QueryCount {
+    private final Map<String, Integer> bySql = new HashMap<>();
+    private int total;
+
+    private void add(String sql) {
+      total++;
+      bySql.merge(sql, 1, Integer::sum);
+    }
+
+    public int getTotal() {
+      return total;
+    }
+
+    // Один и тот же запрос много раз за HTTP-запрос - типичный след N+1
+    public Map.Entry<String, Integer> getMostRepeated() {
+      return bySql.entrySet().stream().max(Map.Entry.comparingByValue()).orElse(null);
+    }
+  }
+}
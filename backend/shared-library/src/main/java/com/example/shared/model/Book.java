@@ -5,7 +5,6 @@ import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.Formula;
 
 @Entity
 @Table(name = "book")
@@ -27,9 +26,23 @@ public class Book {
   @Column(nullable = false)
   private String ISBN;
 
-  @Formula("(SELECT get_average_book_rating(id))")
+  // Агрегат рейтинга поддерживается RatingService, здесь только чтение
+  @Column(name = "rating_sum", insertable = false, updatable = false)
+  private Long ratingSum;
+
+  @Column(name = "rating_count", insertable = false, updatable = false)
+  private Integer ratingCount;
+
+  @Column(name = "average_rating", insertable = false, updatable = false)
   private Float averageRating;
 
+  // Счётчики экземпляров поддерживаются CopiesService и TransactionService, здесь только чтение
+  @Column(name = "total_copies", insertable = false, updatable = false)
+  private Integer totalCopies;
+
+  @Column(name = "available_copies", insertable = false, updatable = false)
+  private Integer availableCopies;
+
   @ManyToOne
   @JoinColumn(name = "genre_id")
   private Genre genre;
@@ -0,0 +1,48 @@
+package com.example.shared.util;
+
+import com.example.shared.exception.ValidationException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Непрозрачный курсор keyset-пагинации для всех сервисов: части через "|" в base64url
+public class CursorUtil {
+
+  public static String encode(String... parts) {
+    String raw = String.join("|", parts);
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  // Последняя часть может сама содержать "|" (например, название книги)
+  public static String[] decode(String cursor, int partCount) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] parts = raw.split("\\|", partCount);
+      if (parts.length != partCount) {
+        throw new ValidationException("Invalid cursor");
+      }
+      return parts;
+    } catch (IllegalArgumentException e) {
+      throw new ValidationException("Invalid cursor", e);
+    }
+  }
+
+  public static Long decodeId(String part) {
+    try {
+      return Long.parseLong(part);
+    } catch (NumberFormatException e) {
+      throw new ValidationException("Invalid cursor", e);
+    }
+  }
+
+  public static LocalDateTime decodeTime(String part) {
+    try {
+      return LocalDateTime.parse(part);
+    } catch (DateTimeParseException e) {
+      throw new ValidationException("Invalid cursor", e);
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package com.example.shared.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+class QueryCountFilterTests {
+
+  private static final int DEFAULT_LIMIT = 3;
+
+  private final QueryCountInspector inspector = new QueryCountInspector();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void withinBudgetKeepsResponse() throws Exception {
+    mockMvc(true)
+        .perform(get("/budgeted").param("queries", "2"))
+        .andExpect(status().isOk())
+        .andExpect(content().string("report"));
+    assertThat(exceeded()).isZero();
+  }
+
+  @Test
+  void exceededBudgetReplacesBufferedResponseWith500() throws Exception {
+    MvcResult result =
+        mockMvc(true)
+            .perform(get("/budgeted").param("queries", "3"))
+            .andExpect(status().isInternalServerError())
+            .andReturn();
+
+    assertThat(result.getResponse().getContentAsString()).doesNotContain("report");
+    assertThat(result.getResponse().getErrorMessage())
+        .contains("executed 3 SQL statements, budget is 2")
+        .contains("select * from book where id = ?");
+    assertThat(exceeded()).isEqualTo(1);
+  }
+
+  @Test
+  void exceededBudgetOnlyCountsWhenNotStrict() throws Exception {
+    mockMvc(false)
+        .perform(get("/budgeted").param("queries", "3"))
+        .andExpect(status().isOk())
+        .andExpect(content().string("report"));
+    assertThat(exceeded()).isEqualTo(1);
+  }
+
+  @Test
+  void endpointWithoutAnnotationUsesDefaultLimit() throws Exception {
+    mockMvc(true)
+        .perform(get("/default").param("queries", String.valueOf(DEFAULT_LIMIT)))
+        .andExpect(status().isOk());
+    mockMvc(true)
+        .perform(get("/default").param("queries", String.valueOf(DEFAULT_LIMIT + 1)))
+        .andExpect(status().isInternalServerError());
+  }
+
+  @Test
+  void unlimitedEndpointIsNeverRejected() throws Exception {
+    mockMvc(true)
+        .perform(get("/unlimited").param("queries", "100"))
+        .andExpect(status().isOk())
+        .andExpect(content().string("import"));
+  }
+
+  @Test
+  void streamingResponseIsCopiedAfterAsyncDispatch() throws Exception {
+    MockMvc mockMvc = mockMvc(true);
+    MvcResult started =
+        mockMvc.perform(get("/stream")).andExpect(request().asyncStarted()).andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andExpect(content().string("streamed"));
+  }
+
+  private MockMvc mockMvc(boolean failOnExceed) {
+    QueryCountFilter filter = new QueryCountFilter(inspector, meterRegistry);
+    ReflectionTestUtils.setField(filter, "defaultLimit", DEFAULT_LIMIT);
+    ReflectionTestUtils.setField(filter, "failOnExceed", failOnExceed);
+    return MockMvcBuilders.standaloneSetup(new BudgetedController(inspector))
+        .addFilters(filter)
+        .build();
+  }
+
+  private double exceeded() {
+    Counter counter = meterRegistry.find("http.server.requests.query.budget.exceeded").counter();
+    return counter != null ? counter.count() : 0;
+  }
+
+  // Вместо Hibernate запросы "выполняет" сам контроллер через тот же inspector
+  @RestController
+  static class BudgetedController {
+    private final QueryCountInspector inspector;
+
+    BudgetedController(QueryCountInspector inspector) {
+      this.inspector = inspector;
+    }
+
+    @QueryBudget(2)
+    @GetMapping("/budgeted")
+    String budgeted(@RequestParam int queries) {
+      execute(queries);
+      return "report";
+    }
+
+    @GetMapping("/default")
+    String byDefault(@RequestParam int queries) {
+      execute(queries);
+      return "default";
+    }
+
+    @QueryBudget(QueryBudget.UNLIMITED)
+    @GetMapping("/unlimited")
+    String unlimited(@RequestParam int queries) {
+      execute(queries);
+      return "import";
+    }
+
+    @GetMapping("/stream")
+    StreamingResponseBody stream() {
+      return out -> out.write("streamed".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void execute(int queries) {
+      for (int i = 0; i < queries; i++) {
+        inspector.inspect("select * from book where id = ?");
+      }
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.example.shared.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.shared.exception.ValidationException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+class CursorUtilTests {
+
+  @Test
+  void lastPartKeepsSeparator() {
+    String cursor = CursorUtil.encode("title", "42", "War | Peace");
+
+    assertThat(CursorUtil.decode(cursor, 3)).containsExactly("title", "42", "War | Peace");
+  }
+
+  // Курсоры, выданные до переноса в shared-library, остаются валидными
+  @Test
+  void singleIdCursorIsBase64UrlOfId() {
+    String legacy =
+        Base64.getUrlEncoder()
+            .withoutPadding()
+            .encodeToString("1234".getBytes(StandardCharsets.UTF_8));
+
+    assertThat(CursorUtil.encode("1234")).isEqualTo(legacy);
+    assertThat(CursorUtil.decodeId(CursorUtil.decode(legacy, 1)[0])).isEqualTo(1234L);
+  }
+
+  @Test
+  void timePartRoundTrips() {
+    LocalDateTime time = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_000_000);
+    String[] parts = CursorUtil.decode(CursorUtil.encode(String.valueOf(time), "RATING", "7"), 3);
+
+    assertThat(CursorUtil.decodeTime(parts[0])).isEqualTo(time);
+  }
+
+  @Test
+  void malformedCursorIsValidationError() {
+    assertThatThrownBy(() -> CursorUtil.decode("not base64!", 1))
+        .isInstanceOf(ValidationException.class);
+    assertThatThrownBy(() -> CursorUtil.decode(CursorUtil.encode("1"), 2))
+        .isInstanceOf(ValidationException.class);
+    assertThatThrownBy(() -> CursorUtil.decodeId("abc")).isInstanceOf(ValidationException.class);
+    assertThatThrownBy(() -> CursorUtil.decodeTime("yesterday"))
+        .isInstanceOf(ValidationException.class);
+  }
+}
@@ -305,25 +305,53 @@ INSERT INTO book_copy (book_id, library_id, inventory_number, available) VALUES
 ON CONFLICT DO NOTHING;
 
 -- РЕЙТИНГИ (rating) - 20 записей
-INSERT INTO rating (user_id, email, book_id, rating_value, review, time) VALUES
-('user-001', 'user1@example.com', 1, 5, 'Великолепное произведение! Обязательно к прочтению.', '2024-12-01 18:00:00'),
-('user-002', 'user2@example.com', 2, 5, 'Глубокий психологический роман. Потрясающе!', '2024-12-05 20:00:00'),
-('user-003', 'user3@example.com', 10, 5, 'Одна из лучших книг, которые я читал. Мастерство Булгакова на высоте.', '2024-12-08 19:30:00'),
-('user-004', 'user4@example.com', 11, 5, 'Актуально и по сей день. Обязательно прочитайте!', '2024-12-10 21:00:00'),
-('user-005', 'user5@example.com', 12, 4, 'Интересная антиутопия, но немного устарела.', '2024-12-12 17:00:00'),
-('user-006', 'user6@example.com', 13, 5, 'Отличная книга для детей и взрослых!', '2024-11-30 16:00:00'),
-('user-007', 'user7@example.com', 4, 4, 'Классика русской литературы. Рекомендую.', '2024-12-05 15:00:00'),
-('user-008', 'user8@example.com', 10, 5, 'Перечитываю уже третий раз. Гениально!', '2024-12-10 18:00:00'),
-('user-009', 'user9@example.com', 14, 5, 'Продолжение не разочаровало. Жду следующую книгу!', '2024-12-15 19:00:00'),
-('user-010', 'user10@example.com', 21, 4, 'Хороший детектив, но концовка предсказуема.', '2024-12-18 20:00:00'),
-('user-011', 'user11@example.com', 1, 5, 'Монументальное произведение. Читал месяц, но оно того стоило.', '2024-10-20 16:00:00'),
-('user-012', 'user12@example.com', 5, 4, 'Сложная, но интересная книга. Философские размышления на высоте.', '2024-10-25 17:00:00'),
-('user-013', 'user13@example.com', 7, 3, 'Не мой жанр, но написано хорошо.', '2024-10-30 18:00:00'),
-('user-014', 'user14@example.com', 15, 5, 'Любимая книга детства. Перечитываю с удовольствием.', '2024-11-05 19:00:00'),
-('user-015', 'user15@example.com', 20, 4, 'Захватывающий научно-фантастический роман.', '2024-11-10 20:00:00'),
-('user-016', 'user16@example.com', 16, 5, 'Эпическая сага. Начало великой трилогии.', '2024-11-15 21:00:00'),
-('user-017', 'user17@example.com', 23, 4, 'Страшная, но интересная книга. Кинг как всегда на высоте.', '2024-11-20 22:00:00'),
-('user-018', 'user18@example.com', 31, 5, 'Отличное введение в космологию. Понятно даже для новичков.', '2024-11-25 18:00:00'),
-('user-019', 'user19@example.com', 41, 4, 'Классика детской литературы. Всем детям к прочтению!', '2024-11-30 19:00:00'),
-('user-020', 'user20@example.com', 44, 5, 'Философская сказка для всех возрастов. Гениально просто.', '2024-12-05 20:00:00')
+INSERT INTO rating (user_id, book_id, rating_value, review, time) VALUES
+('user-001', 1, 5, 'Великолепное произведение! Обязательно к прочтению.', '2024-12-01 18:00:00'),
+('user-002', 2, 5, 'Глубокий психологический роман. Потрясающе!', '2024-12-05 20:00:00'),
+('user-003', 10, 5, 'Одна из лучших книг, которые я читал. Мастерство Булгакова на высоте.', '2024-12-08 19:30:00'),
+('user-004', 11, 5, 'Актуально и по сей день. Обязательно прочитайте!', '2024-12-10 21:00:00'),
+('user-005', 12, 4, 'Интересная антиутопия, но немного устарела.', '2024-12-12 17:00:00'),
+('user-006', 13, 5, 'Отличная книга для детей и взрослых!', '2024-11-30 16:00:00'),
+('user-007', 4, 4, 'Классика русской литературы. Рекомендую.', '2024-12-05 15:00:00'),
+('user-008', 10, 5, 'Перечитываю уже третий раз. Гениально!', '2024-12-10 18:00:00'),
+('user-009', 14, 5, 'Продолжение не разочаровало. Жду следующую книгу!', '2024-12-15 19:00:00'),
+('user-010', 21, 4, 'Хороший детектив, но концовка предсказуема.', '2024-12-18 20:00:00'),
+('user-011', 1, 5, 'Монументальное произведение. Читал месяц, но оно того стоило.', '2024-10-20 16:00:00'),
+('user-012', 5, 4, 'Сложная, но интересная книга. Философские размышления на высоте.', '2024-10-25 17:00:00'),
+('user-013', 7, 3, 'Не мой жанр, но написано хорошо.', '2024-10-30 18:00:00'),
+('user-014', 15, 5, 'Любимая книга детства. Перечитываю с удовольствием.', '2024-11-05 19:00:00'),
+('user-015', 20, 4, 'Захватывающий научно-фантастический роман.', '2024-11-10 20:00:00'),
+('user-016', 16, 5, 'Эпическая сага. Начало великой трилогии.', '2024-11-15 21:00:00'),
+('user-017', 23, 4, 'Страшная, но интересная книга. Кинг как всегда на высоте.', '2024-11-20 22:00:00'),
+('user-018', 31, 5, 'Отличное введение в космологию. Понятно даже для новичков.', '2024-11-25 18:00:00'),
+('user-019', 41, 4, 'Классика детской литературы. Всем детям к прочтению!', '2024-11-30 19:00:00'),
+('user-020', 44, 5, 'Философская сказка для всех возрастов. Гениально просто.', '2024-12-05 20:00:00')
 ON CONFLICT DO NOTHING;
+
+-- ============================================
+-- 3. ПЕРЕСЧЁТ АГРЕГАТОВ КНИГ
+-- ============================================
+
+-- Рейтинг и счётчики экземпляров поддерживает сервис, при прямой вставке их нужно пересчитать
+UPDATE book b
+SET rating_sum = s.rating_sum,
+    rating_count = s.rating_count,
+    average_rating = s.rating_sum::REAL / s.rating_count
+FROM (
+    SELECT r.book_id, SUM(r.rating_value) AS rating_sum, COUNT(*) AS rating_count
+    FROM rating r
+    GROUP BY r.book_id
+) s
+WHERE b.id = s.book_id;
+
+UPDATE book b
+SET total_copies = s.total_copies,
+    available_copies = s.available_copies
+FROM (
+    SELECT bc.book_id,
+           COUNT(*) AS total_copies,
+           COUNT(*) FILTER (WHERE bc.available) AS available_copies
+    FROM book_copy bc
+    GROUP BY bc.book_id
+) s
+WHERE b.id = s.book_id;